@@ -0,0 +1,95 @@
+package dev.zarr.zarrjava.benchmarks;
+
+import dev.zarr.zarrjava.v3.DataType;
+import dev.zarr.zarrjava.v3.codec.Codec;
+import dev.zarr.zarrjava.v3.codec.CodecBuilder;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import ucar.ma2.IndexIterator;
+
+final class BenchmarkUtils {
+
+  static final long SEED = 42;
+
+  private BenchmarkUtils() {
+  }
+
+  /**
+   * Parses a shape like `32x32x32`.
+   */
+  static int[] parseShape(String shape) {
+    return Arrays.stream(shape.split("x"))
+        .mapToInt(Integer::parseInt)
+        .toArray();
+  }
+
+  /**
+   * Builds the codecs of a named codec chain. Every chain starts with the bytes codec.
+   */
+  static CodecBuilder withCodecChain(CodecBuilder builder, String codecChain, int ndim) {
+    switch (codecChain) {
+      case "bytes":
+        return builder.withBytes("LITTLE");
+      case "zstd":
+        return builder.withBytes("LITTLE").withZstd();
+      case "blosc":
+        return builder.withBytes("LITTLE").withBlosc();
+      case "gzip":
+        return builder.withBytes("LITTLE").withGzip();
+      case "transpose_zstd":
+        return builder
+            .withTranspose(IntStream.range(0, ndim).map(i -> ndim - 1 - i).toArray())
+            .withBytes("LITTLE")
+            .withZstd();
+      default:
+        throw new IllegalArgumentException("Unknown codec chain '" + codecChain + "'.");
+    }
+  }
+
+  static Codec[] buildCodecs(DataType dataType, String codecChain, int ndim) {
+    return withCodecChain(new CodecBuilder(dataType), codecChain, ndim).build();
+  }
+
+  /**
+   * Creates an array with a smooth gradient and some noise, which compresses similar to image
+   * data.
+   */
+  static ucar.ma2.Array createTestData(DataType dataType, int[] shape) {
+    final ucar.ma2.Array array = ucar.ma2.Array.factory(dataType.getMA2DataType(), shape);
+    final Random random = new Random(SEED);
+    final IndexIterator iterator = array.getIndexIterator();
+    long i = 0;
+    while (iterator.hasNext()) {
+      if (dataType == DataType.BOOL) {
+        iterator.setBooleanNext(random.nextInt(8) == 0);
+      } else {
+        iterator.setDoubleNext((i / 64) % 100 + random.nextInt(8));
+      }
+      i++;
+    }
+    return array;
+  }
+
+  static byte[] createTestBytes(int length) {
+    final byte[] bytes = new byte[length];
+    new Random(SEED).nextBytes(bytes);
+    return bytes;
+  }
+
+  static void deleteRecursively(Path path) throws IOException {
+    if (!Files.exists(path)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(path)) {
+      for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(p);
+      }
+    }
+  }
+}
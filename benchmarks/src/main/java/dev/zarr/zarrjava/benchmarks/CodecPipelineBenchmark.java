@@ -0,0 +1,67 @@
+package dev.zarr.zarrjava.benchmarks;
+
+import dev.zarr.zarrjava.ZarrException;
+import dev.zarr.zarrjava.utils.Utils;
+import dev.zarr.zarrjava.v3.ArrayMetadata.CoreArrayMetadata;
+import dev.zarr.zarrjava.v3.DataType;
+import dev.zarr.zarrjava.v3.codec.CodecPipeline;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encodes and decodes a single chunk with the CodecPipeline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecPipelineBenchmark {
+
+  @Param({"UINT8", "UINT16", "FLOAT32"})
+  public String dataType;
+
+  @Param({"32x32x32", "64x64x64"})
+  public String chunkShape;
+
+  @Param({"bytes", "zstd", "blosc", "gzip", "transpose_zstd"})
+  public String codecs;
+
+  CodecPipeline codecPipeline;
+  ucar.ma2.Array chunkArray;
+  ByteBuffer chunkBytes;
+
+  @Setup
+  public void setup() throws ZarrException {
+    final DataType parsedDataType = DataType.valueOf(dataType);
+    final int[] parsedChunkShape = BenchmarkUtils.parseShape(chunkShape);
+    codecPipeline = new CodecPipeline(
+        BenchmarkUtils.buildCodecs(parsedDataType, codecs, parsedChunkShape.length),
+        new CoreArrayMetadata(Utils.toLongArray(parsedChunkShape), parsedChunkShape,
+            parsedDataType, 0));
+    chunkArray = BenchmarkUtils.createTestData(parsedDataType, parsedChunkShape);
+    chunkBytes = codecPipeline.encode(chunkArray);
+  }
+
+  @Benchmark
+  public ByteBuffer encode() throws ZarrException {
+    return codecPipeline.encode(chunkArray);
+  }
+
+  @Benchmark
+  public ucar.ma2.Array decode() throws ZarrException {
+    return codecPipeline.decode(chunkBytes.duplicate());
+  }
+}
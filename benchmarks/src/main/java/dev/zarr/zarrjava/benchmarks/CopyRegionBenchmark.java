@@ -0,0 +1,75 @@
+package dev.zarr.zarrjava.benchmarks;
+
+import dev.zarr.zarrjava.utils.MultiArrayUtils;
+import dev.zarr.zarrjava.v3.DataType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Copies a chunk into a larger output array, as done when assembling the result of a read. The
+ * partial copy only transfers the interior of the chunk, as done for reads that are not aligned
+ * to the chunk grid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CopyRegionBenchmark {
+
+  @Param({"UINT8", "UINT16", "FLOAT32", "FLOAT64"})
+  public String dataType;
+
+  @Param({"64x64x64", "1x512x512"})
+  public String chunkShape;
+
+  ucar.ma2.Array chunkArray;
+  ucar.ma2.Array outputArray;
+  int[] chunkShapeArray;
+  int[] outputOffset;
+  int[] partialOffset;
+  int[] partialShape;
+
+  @Setup
+  public void setup() {
+    final DataType parsedDataType = DataType.valueOf(dataType);
+    chunkShapeArray = BenchmarkUtils.parseShape(chunkShape);
+    final int[] outputShape = new int[chunkShapeArray.length];
+    outputOffset = new int[chunkShapeArray.length];
+    partialOffset = new int[chunkShapeArray.length];
+    partialShape = new int[chunkShapeArray.length];
+    for (int dimIdx = 0; dimIdx < chunkShapeArray.length; dimIdx++) {
+      outputShape[dimIdx] = 2 * chunkShapeArray[dimIdx];
+      outputOffset[dimIdx] = chunkShapeArray[dimIdx] / 2;
+      partialOffset[dimIdx] = chunkShapeArray[dimIdx] / 4;
+      partialShape[dimIdx] = Math.max(1, chunkShapeArray[dimIdx] / 2);
+    }
+    chunkArray = BenchmarkUtils.createTestData(parsedDataType, chunkShapeArray);
+    outputArray = ucar.ma2.Array.factory(parsedDataType.getMA2DataType(), outputShape);
+  }
+
+  @Benchmark
+  public ucar.ma2.Array copyFullChunk() {
+    MultiArrayUtils.copyRegion(chunkArray, new int[chunkShapeArray.length], outputArray,
+        outputOffset, chunkShapeArray);
+    return outputArray;
+  }
+
+  @Benchmark
+  public ucar.ma2.Array copyPartialChunk() {
+    MultiArrayUtils.copyRegion(chunkArray, partialOffset, outputArray, outputOffset,
+        partialShape);
+    return outputArray;
+  }
+}
@@ -0,0 +1,150 @@
+package dev.zarr.zarrjava.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A minimal HTTP server on the loopback interface that serves the files of a directory. It
+ * understands ranged GET, HEAD, PUT and DELETE requests with path-style keys, which is enough to
+ * stand in for a remote HTTP server and, with path-style access, for S3 without multipart uploads.
+ * Latencies therefore only include the client and protocol overhead, not the network.
+ */
+final class LocalObjectServer implements AutoCloseable {
+
+  private static final Pattern RANGE_PATTERN = Pattern.compile("(?i)bytes=(\\d*)-(\\d*)");
+
+  private final Path root;
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  LocalObjectServer(Path root) throws IOException {
+    this.root = root.toAbsolutePath().normalize();
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    this.executor = Executors.newCachedThreadPool();
+    server.createContext("/", this::handle);
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  String getUrl() {
+    return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      final Path path = root.resolve(exchange.getRequestURI().getPath().substring(1)).normalize();
+      if (!path.startsWith(root)) {
+        exchange.sendResponseHeaders(403, -1);
+        return;
+      }
+      switch (exchange.getRequestMethod()) {
+        case "GET":
+        case "HEAD":
+          handleGet(exchange, path);
+          break;
+        case "PUT":
+          handlePut(exchange, path);
+          break;
+        case "DELETE":
+          Files.deleteIfExists(path);
+          exchange.sendResponseHeaders(204, -1);
+          break;
+        default:
+          exchange.sendResponseHeaders(405, -1);
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void handleGet(HttpExchange exchange, Path path) throws IOException {
+    final byte[] bytes;
+    try {
+      bytes = Files.readAllBytes(path);
+    } catch (NoSuchFileException e) {
+      exchange.sendResponseHeaders(404, -1);
+      return;
+    }
+    int start = 0;
+    int end = bytes.length;
+    int status = 200;
+    final String range = exchange.getRequestHeaders().getFirst("Range");
+    if (range != null) {
+      final Matcher matcher = RANGE_PATTERN.matcher(range);
+      if (matcher.matches()) {
+        if (matcher.group(1).isEmpty()) {
+          start = Math.max(0, bytes.length - Integer.parseInt(matcher.group(2)));
+        } else {
+          start = Math.min(Integer.parseInt(matcher.group(1)), bytes.length);
+          if (!matcher.group(2).isEmpty()) {
+            end = Math.min(Integer.parseInt(matcher.group(2)) + 1, bytes.length);
+          }
+        }
+        status = 206;
+        exchange.getResponseHeaders().set("Content-Range",
+            "bytes " + start + "-" + (end - 1) + "/" + bytes.length);
+      }
+    }
+    exchange.getResponseHeaders().set("ETag", "\"" + md5Hex(bytes) + "\"");
+    exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+    if (exchange.getRequestMethod().equals("HEAD")) {
+      exchange.getResponseHeaders().set("Content-Length", Integer.toString(end - start));
+      exchange.sendResponseHeaders(status, -1);
+      return;
+    }
+    exchange.sendResponseHeaders(status, end - start);
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      outputStream.write(bytes, start, end - start);
+    }
+  }
+
+  private void handlePut(HttpExchange exchange, Path path) throws IOException {
+    final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    try (InputStream inputStream = exchange.getRequestBody()) {
+      final byte[] buffer = new byte[64 * 1024];
+      int len;
+      while ((len = inputStream.read(buffer)) > 0) {
+        body.write(buffer, 0, len);
+      }
+    }
+    final byte[] bytes = body.toByteArray();
+    Files.createDirectories(path.getParent());
+    Files.write(path, bytes);
+    exchange.getResponseHeaders().set("ETag", "\"" + md5Hex(bytes) + "\"");
+    exchange.sendResponseHeaders(200, -1);
+  }
+
+  private static String md5Hex(byte[] bytes) {
+    try {
+      final byte[] digest = MessageDigest.getInstance("MD5").digest(bytes);
+      final StringBuilder hex = new StringBuilder();
+      for (byte b : digest) {
+        hex.append(String.format("%02x", b));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
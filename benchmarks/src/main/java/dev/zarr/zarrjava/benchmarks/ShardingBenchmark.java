@@ -0,0 +1,108 @@
+package dev.zarr.zarrjava.benchmarks;
+
+import dev.zarr.zarrjava.ZarrException;
+import dev.zarr.zarrjava.store.FilesystemStore;
+import dev.zarr.zarrjava.utils.Utils;
+import dev.zarr.zarrjava.v3.Array;
+import dev.zarr.zarrjava.v3.DataType;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads and writes a sharded array that consists of a single shard on the local filesystem. The
+ * benchmarks cover full shard access as well as access to a single inner chunk, which exercises
+ * the partial decode and partial encode paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShardingBenchmark {
+
+  @Param({"UINT8", "UINT16"})
+  public String dataType;
+
+  @Param({"256x256x256"})
+  public String shardShape;
+
+  @Param({"32x32x32", "64x64x64"})
+  public String innerChunkShape;
+
+  @Param({"end", "start"})
+  public String indexLocation;
+
+  @Param({"bytes", "zstd"})
+  public String codecs;
+
+  Path directory;
+  Array array;
+  ucar.ma2.Array shardArray;
+  ucar.ma2.Array innerChunkArray;
+  long[] innerChunkOffset;
+
+  @Setup
+  public void setup() throws IOException, ZarrException {
+    final DataType parsedDataType = DataType.valueOf(dataType);
+    final int[] parsedShardShape = BenchmarkUtils.parseShape(shardShape);
+    final int[] parsedInnerChunkShape = BenchmarkUtils.parseShape(innerChunkShape);
+
+    directory = Files.createTempDirectory("zarr-java-benchmark");
+    array = Array.create(new FilesystemStore(directory).resolve("array"), Array.metadataBuilder()
+        .withShape(Utils.toLongArray(parsedShardShape))
+        .withDataType(parsedDataType)
+        .withChunkShape(parsedShardShape)
+        .withFillValue(0)
+        .withCodecs(c -> c.withSharding(parsedInnerChunkShape,
+            c1 -> BenchmarkUtils.withCodecChain(c1, codecs, parsedInnerChunkShape.length),
+            indexLocation))
+        .build());
+    shardArray = BenchmarkUtils.createTestData(parsedDataType, parsedShardShape);
+    innerChunkArray = BenchmarkUtils.createTestData(parsedDataType, parsedInnerChunkShape);
+    innerChunkOffset = new long[parsedShardShape.length];
+    for (int dimIdx = 0; dimIdx < innerChunkOffset.length; dimIdx++) {
+      innerChunkOffset[dimIdx] = parsedInnerChunkShape[dimIdx];
+    }
+    array.write(shardArray);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    BenchmarkUtils.deleteRecursively(directory);
+  }
+
+  @Benchmark
+  public ucar.ma2.Array readShard() throws ZarrException {
+    return array.read();
+  }
+
+  @Benchmark
+  public ucar.ma2.Array readInnerChunk() throws ZarrException {
+    return array.read(innerChunkOffset, innerChunkArray.getShape());
+  }
+
+  @Benchmark
+  public void writeShard() {
+    array.write(shardArray);
+  }
+
+  @Benchmark
+  public void writeInnerChunk() {
+    array.write(innerChunkOffset, innerChunkArray);
+  }
+}
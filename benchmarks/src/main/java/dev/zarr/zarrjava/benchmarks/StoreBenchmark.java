@@ -0,0 +1,112 @@
+package dev.zarr.zarrjava.benchmarks;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.AnonymousAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import dev.zarr.zarrjava.store.FilesystemStore;
+import dev.zarr.zarrjava.store.HttpStore;
+import dev.zarr.zarrjava.store.S3Store;
+import dev.zarr.zarrjava.store.Store;
+import dev.zarr.zarrjava.store.StoreHandle;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads single values through the stores. The HTTP and S3 stores talk to a
+ * LocalObjectServer on the loopback interface.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StoreBenchmark {
+
+  static final String BUCKET_NAME = "bucket";
+
+  @Param({"filesystem", "filesystem_mmap", "http", "s3"})
+  public String storeType;
+
+  @Param({"4096", "1048576"})
+  public int valueLength;
+
+  Path directory;
+  LocalObjectServer server;
+  StoreHandle storeHandle;
+  long rangeStart;
+  long rangeEnd;
+
+  @Setup
+  public void setup() throws IOException {
+    directory = Files.createTempDirectory("zarr-java-benchmark");
+    Files.createDirectories(directory.resolve(BUCKET_NAME));
+    Files.write(directory.resolve(BUCKET_NAME).resolve("value"),
+        BenchmarkUtils.createTestBytes(valueLength));
+    rangeStart = valueLength / 4;
+    rangeEnd = rangeStart + Math.min(1024, valueLength / 2);
+
+    if (storeType.equals("http") || storeType.equals("s3")) {
+      server = new LocalObjectServer(directory);
+    }
+    storeHandle = createStore(storeType, directory, server).resolve("value");
+  }
+
+  static Store createStore(String storeType, Path directory, LocalObjectServer server) {
+    switch (storeType) {
+      case "filesystem":
+        return new FilesystemStore(directory.resolve(BUCKET_NAME));
+      case "filesystem_mmap":
+        return new FilesystemStore(directory.resolve(BUCKET_NAME)).withMemoryMapping(64);
+      case "http":
+        return new HttpStore(server.getUrl() + "/" + BUCKET_NAME);
+      case "s3":
+        return new S3Store(AmazonS3ClientBuilder.standard()
+            .withEndpointConfiguration(new EndpointConfiguration(server.getUrl(), "us-east-1"))
+            .withPathStyleAccessEnabled(true)
+            .withCredentials(new AWSStaticCredentialsProvider(new AnonymousAWSCredentials()))
+            .build(), BUCKET_NAME, null);
+      default:
+        throw new IllegalArgumentException("Unknown store type '" + storeType + "'.");
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    if (server != null) {
+      server.close();
+    }
+    BenchmarkUtils.deleteRecursively(directory);
+  }
+
+  @Benchmark
+  public ByteBuffer read() {
+    return storeHandle.read();
+  }
+
+  @Benchmark
+  public ByteBuffer readRange() {
+    return storeHandle.read(rangeStart, rangeEnd);
+  }
+
+  @Benchmark
+  public ByteBuffer readSuffix() {
+    return storeHandle.read(-16);
+  }
+}
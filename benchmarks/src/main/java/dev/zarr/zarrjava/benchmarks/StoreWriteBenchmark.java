@@ -0,0 +1,69 @@
+package dev.zarr.zarrjava.benchmarks;
+
+import dev.zarr.zarrjava.store.StoreHandle;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writes single values through the stores that support writing. The S3 store talks to a
+ * LocalObjectServer on the loopback interface.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StoreWriteBenchmark {
+
+  @Param({"filesystem", "filesystem_mmap", "s3"})
+  public String storeType;
+
+  @Param({"4096", "1048576"})
+  public int valueLength;
+
+  Path directory;
+  LocalObjectServer server;
+  StoreHandle storeHandle;
+  ByteBuffer value;
+
+  @Setup
+  public void setup() throws IOException {
+    directory = Files.createTempDirectory("zarr-java-benchmark");
+    Files.createDirectories(directory.resolve(StoreBenchmark.BUCKET_NAME));
+    value = ByteBuffer.wrap(BenchmarkUtils.createTestBytes(valueLength));
+
+    if (storeType.equals("s3")) {
+      server = new LocalObjectServer(directory);
+    }
+    storeHandle = StoreBenchmark.createStore(storeType, directory, server).resolve("value");
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    if (server != null) {
+      server.close();
+    }
+    BenchmarkUtils.deleteRecursively(directory);
+  }
+
+  @Benchmark
+  public void write() {
+    storeHandle.set(value.duplicate());
+  }
+}
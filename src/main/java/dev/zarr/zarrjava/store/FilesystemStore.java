@@ -1,29 +1,168 @@
 package dev.zarr.zarrjava.store;
 
+import dev.zarr.zarrjava.utils.ParallelUtils;
 import dev.zarr.zarrjava.utils.Utils;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-public class FilesystemStore implements Store, Store.ListableStore {
+public class FilesystemStore implements Store, Store.ListableStore, Store.AsyncStore,
+    Store.StreamingStore {
+
+  private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
 
   @Nonnull
   private final Path path;
+  @Nonnull
+  private final Executor executor;
+  private final LinkedHashMap<Path, MappedFile> mappedFiles =
+      new LinkedHashMap<>(16, 0.75f, true);
+  private int maxMappedFiles = 0;
+  private long mappedFilesGeneration = 0;
 
   public FilesystemStore(@Nonnull Path path) {
-    this.path = path;
+    this(path, ParallelUtils.defaultIoExecutor());
   }
 
   public FilesystemStore(@Nonnull String path) {
-    this.path = Paths.get(path);
+    this(Paths.get(path));
+  }
+
+  /**
+   * Creates a filesystem store whose asynchronous methods perform the blocking file operations on
+   * the provided executor.
+   *
+   * @param path
+   * @param executor
+   */
+  public FilesystemStore(@Nonnull Path path, @Nonnull Executor executor) {
+    this.path = path;
+    this.executor = executor;
+  }
+
+  /**
+   * Enables reading through memory-mapped files. Reads return read-only views into the mapped
+   * files instead of copying the bytes into newly allocated buffers. The mappings of up to
+   * `maxMappedFiles` recently read files are kept open. A value of 0 disables memory mapping.
+   * Files larger than 2 GiB are read without mapping.
+   * <p>
+   * While memory mapping is enabled, values are written into temporary files that replace the
+   * previous files, so that views handed out earlier remain valid. A cached mapping is reused only
+   * while the size, modification time and file key of the file are unchanged, so that files
+   * replaced by other writers are mapped again.
+   * <p>
+   * Only enable memory mapping if no other writer modifies the directory while this store reads
+   * from it. This includes other processes and other FilesystemStore instances without memory
+   * mapping, which truncate and overwrite files in place. Reading a mapping of a file that was
+   * truncated in the meantime fails with an InternalError or may crash the JVM, and a change that
+   * happens within the resolution of the file system's timestamps may go unnoticed.
+   *
+   * @param maxMappedFiles
+   */
+  public FilesystemStore withMemoryMapping(int maxMappedFiles) {
+    if (maxMappedFiles < 0) {
+      throw new IllegalArgumentException("'maxMappedFiles' needs to be non-negative.");
+    }
+    synchronized (mappedFiles) {
+      this.maxMappedFiles = maxMappedFiles;
+      evictMappedFiles();
+    }
+    return this;
+  }
+
+  /**
+   * Returns a read-only view of the complete file, or null if the file does not exist or cannot be
+   * mapped.
+   */
+  @Nullable
+  private ByteBuffer getMappedFile(Path keyPath) {
+    keyPath = keyPath.toAbsolutePath();
+    final long generation;
+    synchronized (mappedFiles) {
+      if (maxMappedFiles == 0) {
+        return null;
+      }
+      generation = mappedFilesGeneration;
+    }
+    // The attributes are read before the file is opened, so that a file that is replaced in
+    // between is detected at the next read.
+    final BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(keyPath, BasicFileAttributes.class);
+    } catch (IOException e) {
+      invalidateMappedFile(keyPath);
+      return null;
+    }
+    synchronized (mappedFiles) {
+      MappedFile mappedFile = mappedFiles.get(keyPath);
+      if (mappedFile != null) {
+        if (mappedFile.matches(attributes)) {
+          return mappedFile.buffer.duplicate();
+        }
+        mappedFiles.remove(keyPath);
+      }
+    }
+    if (attributes.size() > Integer.MAX_VALUE) {
+      return null;
+    }
+    final MappedFile mappedFile;
+    try (FileChannel channel = FileChannel.open(keyPath, StandardOpenOption.READ)) {
+      mappedFile = new MappedFile(
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(),
+              attributes.size())), attributes);
+    } catch (IOException e) {
+      return null;
+    }
+    synchronized (mappedFiles) {
+      // Files that were replaced by this store while they were being mapped are not cached.
+      if (generation == mappedFilesGeneration) {
+        mappedFiles.put(keyPath, mappedFile);
+        evictMappedFiles();
+      }
+    }
+    return mappedFile.buffer.duplicate();
+  }
+
+  private void evictMappedFiles() {
+    Iterator<MappedFile> iterator = mappedFiles.values().iterator();
+    while (mappedFiles.size() > maxMappedFiles && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+
+  private void invalidateMappedFile(Path keyPath) {
+    synchronized (mappedFiles) {
+      mappedFilesGeneration++;
+      mappedFiles.remove(keyPath.toAbsolutePath());
+    }
+  }
+
+  private boolean isMemoryMapped() {
+    synchronized (mappedFiles) {
+      return maxMappedFiles > 0;
+    }
   }
 
   Path resolveKeys(String[] keys) {
@@ -42,6 +181,10 @@ public class FilesystemStore implements Store, Store.ListableStore {
   @Nullable
   @Override
   public ByteBuffer get(String[] keys) {
+    ByteBuffer mappedFile = getMappedFile(resolveKeys(keys));
+    if (mappedFile != null) {
+      return mappedFile;
+    }
     try {
       return ByteBuffer.wrap(Files.readAllBytes(resolveKeys(keys)));
     } catch (IOException e) {
@@ -52,6 +195,12 @@ public class FilesystemStore implements Store, Store.ListableStore {
   @Nullable
   @Override
   public ByteBuffer get(String[] keys, long start) {
+    ByteBuffer mappedFile = getMappedFile(resolveKeys(keys));
+    if (mappedFile != null) {
+      int startOffset = (int) (start >= 0 ? start : mappedFile.limit() + start);
+      mappedFile.position(Math.min(Math.max(startOffset, 0), mappedFile.limit()));
+      return mappedFile.slice();
+    }
     try (SeekableByteChannel byteChannel = Files.newByteChannel(resolveKeys(keys))) {
       long startOffset = 0;
       if (start >= 0) {
@@ -73,6 +222,13 @@ public class FilesystemStore implements Store, Store.ListableStore {
   @Nullable
   @Override
   public ByteBuffer get(String[] keys, long start, long end) {
+    ByteBuffer mappedFile = getMappedFile(resolveKeys(keys));
+    if (mappedFile != null) {
+      int startOffset = (int) (start >= 0 ? start : mappedFile.limit() + start);
+      mappedFile.limit((int) Math.min(Math.max(end, 0), mappedFile.limit()));
+      mappedFile.position(Math.min(Math.max(startOffset, 0), mappedFile.limit()));
+      return mappedFile.slice();
+    }
     try (SeekableByteChannel byteChannel = Files.newByteChannel(resolveKeys(keys))) {
       long startOffset = 0;
       if (start >= 0) {
@@ -93,6 +249,15 @@ public class FilesystemStore implements Store, Store.ListableStore {
 
   @Override
   public void set(String[] keys, ByteBuffer bytes) {
+    if (isMemoryMapped()) {
+      set(keys, outputStream -> {
+        WritableByteChannel channel = Channels.newChannel(outputStream);
+        while (bytes.hasRemaining()) {
+          channel.write(bytes);
+        }
+      });
+      return;
+    }
     Path keyPath = resolveKeys(keys);
     try {
       Files.createDirectories(keyPath.getParent());
@@ -110,8 +275,50 @@ public class FilesystemStore implements Store, Store.ListableStore {
     }
   }
 
+  /**
+   * Streams the value into a temporary file next to the target file, which replaces the target
+   * file once the writer has finished.
+   */
+  @Override
+  public void set(String[] keys, ValueWriter writer) {
+    Path keyPath = resolveKeys(keys).toAbsolutePath();
+    Path tmpPath = null;
+    try {
+      Files.createDirectories(keyPath.getParent());
+      tmpPath = Files.createTempFile(keyPath.getParent(), "." + keyPath.getFileName(),
+          TEMPORARY_FILE_SUFFIX);
+      try (OutputStream outputStream = Files.newOutputStream(tmpPath)) {
+        writer.writeTo(outputStream);
+      }
+      Files.move(tmpPath, keyPath, StandardCopyOption.REPLACE_EXISTING);
+      invalidateMappedFile(keyPath);
+    } catch (IOException e) {
+      deleteQuietly(tmpPath);
+      throw new RuntimeException(e);
+    } catch (RuntimeException e) {
+      deleteQuietly(tmpPath);
+      throw e;
+    }
+  }
+
+  private static boolean isTemporaryFileName(String name) {
+    return name.startsWith(".") && name.endsWith(TEMPORARY_FILE_SUFFIX);
+  }
+
+  private static void deleteQuietly(@Nullable Path path) {
+    if (path == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      // ignore
+    }
+  }
+
   @Override
   public void delete(String[] keys) {
+    invalidateMappedFile(resolveKeys(keys));
     try {
       Files.delete(resolveKeys(keys));
     } catch (NoSuchFileException e) {
@@ -121,9 +328,47 @@ public class FilesystemStore implements Store, Store.ListableStore {
     }
   }
 
+  @Nonnull
+  @Override
+  public CompletableFuture<Boolean> existsAsync(String[] keys) {
+    return CompletableFuture.supplyAsync(() -> exists(keys), executor);
+  }
+
+  @Nonnull
+  @Override
+  public CompletableFuture<ByteBuffer> getAsync(String[] keys) {
+    return CompletableFuture.supplyAsync(() -> get(keys), executor);
+  }
+
+  @Nonnull
+  @Override
+  public CompletableFuture<ByteBuffer> getAsync(String[] keys, long start) {
+    return CompletableFuture.supplyAsync(() -> get(keys, start), executor);
+  }
+
+  @Nonnull
+  @Override
+  public CompletableFuture<ByteBuffer> getAsync(String[] keys, long start, long end) {
+    return CompletableFuture.supplyAsync(() -> get(keys, start, end), executor);
+  }
+
+  @Nonnull
+  @Override
+  public CompletableFuture<Void> setAsync(String[] keys, ByteBuffer bytes) {
+    return CompletableFuture.runAsync(() -> set(keys, bytes), executor);
+  }
+
+  @Nonnull
+  @Override
+  public CompletableFuture<Void> deleteAsync(String[] keys) {
+    return CompletableFuture.runAsync(() -> delete(keys), executor);
+  }
+
   public Stream<String> list(String[] keys) {
     try {
-      return Files.list(resolveKeys(keys)).map(p -> p.toFile().getName());
+      // Temporary files of writes that are in progress are not listed.
+      return Files.list(resolveKeys(keys)).map(p -> p.toFile().getName())
+          .filter(name -> !isTemporaryFileName(name));
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -140,4 +385,27 @@ public class FilesystemStore implements Store, Store.ListableStore {
     return this.path.toUri().toString().replaceAll("\\/$", "");
   }
 
+  private static final class MappedFile {
+
+    @Nonnull
+    final MappedByteBuffer buffer;
+    final long size;
+    @Nonnull
+    final FileTime lastModifiedTime;
+    @Nullable
+    final Object fileKey;
+
+    MappedFile(@Nonnull MappedByteBuffer buffer, @Nonnull BasicFileAttributes attributes) {
+      this.buffer = buffer;
+      this.size = attributes.size();
+      this.lastModifiedTime = attributes.lastModifiedTime();
+      this.fileKey = attributes.fileKey();
+    }
+
+    boolean matches(@Nonnull BasicFileAttributes attributes) {
+      return size == attributes.size()
+          && lastModifiedTime.equals(attributes.lastModifiedTime())
+          && Objects.equals(fileKey, attributes.fileKey());
+    }
+  }
 }
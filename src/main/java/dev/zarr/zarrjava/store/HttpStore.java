@@ -1,16 +1,18 @@
 package dev.zarr.zarrjava.store;
 
 import com.squareup.okhttp.Call;
+import com.squareup.okhttp.Callback;
 import com.squareup.okhttp.OkHttpClient;
 import com.squareup.okhttp.Request;
 import com.squareup.okhttp.Response;
 import com.squareup.okhttp.ResponseBody;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-public class HttpStore implements Store {
+public class HttpStore implements Store, Store.AsyncStore {
 
   @Nonnull
   private final OkHttpClient httpClient;
@@ -36,6 +38,9 @@ public class HttpStore implements Store {
     try {
       Response response = call.execute();
       try (ResponseBody body = response.body()) {
+        if (!response.isSuccessful()) {
+          return null;
+        }
         return ByteBuffer.wrap(body.bytes());
       }
     } catch (IOException e) {
@@ -43,6 +48,52 @@ public class HttpStore implements Store {
     }
   }
 
+  @Nonnull
+  CompletableFuture<ByteBuffer> getAsync(Request request) {
+    CompletableFuture<ByteBuffer> future = new CompletableFuture<>();
+    httpClient.newCall(request).enqueue(new Callback() {
+      @Override
+      public void onFailure(Request request, IOException e) {
+        future.complete(null);
+      }
+
+      @Override
+      public void onResponse(Response response) {
+        // Error responses, e.g. 404, complete with null like missing keys in the other stores.
+        try (ResponseBody body = response.body()) {
+          if (!response.isSuccessful()) {
+            future.complete(null);
+            return;
+          }
+          future.complete(ByteBuffer.wrap(body.bytes()));
+        } catch (IOException e) {
+          future.complete(null);
+        } catch (RuntimeException e) {
+          future.completeExceptionally(e);
+        }
+      }
+    });
+    return future;
+  }
+
+  Request buildGetRequest(String[] keys) {
+    return new Request.Builder().url(resolveKeys(keys)).build();
+  }
+
+  Request buildGetRequest(String[] keys, long start) {
+    return new Request.Builder().url(resolveKeys(keys)).header(
+            "Range", start < 0 ? String.format("Bytes=%d", start) : String.format("Bytes=%d-", start))
+        .build();
+  }
+
+  Request buildGetRequest(String[] keys, long start, long end) {
+    if (start < 0) {
+      throw new IllegalArgumentException("Argument 'start' needs to be non-negative.");
+    }
+    return new Request.Builder().url(resolveKeys(keys)).header(
+        "Range", String.format("Bytes=%d-%d", start, end + 1)).build();
+  }
+
   @Override
   public boolean exists(String[] keys) {
     Request request = new Request.Builder().head().url(resolveKeys(keys)).build();
@@ -58,29 +109,19 @@ public class HttpStore implements Store {
   @Nullable
   @Override
   public ByteBuffer get(String[] keys) {
-    Request request = new Request.Builder().url(resolveKeys(keys)).build();
-    return get(request);
+    return get(buildGetRequest(keys));
   }
 
   @Nullable
   @Override
   public ByteBuffer get(String[] keys, long start) {
-    Request request = new Request.Builder().url(resolveKeys(keys)).header(
-            "Range", start < 0 ? String.format("Bytes=%d", start) : String.format("Bytes=%d-", start))
-        .build();
-
-    return get(request);
+    return get(buildGetRequest(keys, start));
   }
 
   @Nullable
   @Override
   public ByteBuffer get(String[] keys, long start, long end) {
-    if (start < 0) {
-      throw new IllegalArgumentException("Argument 'start' needs to be non-negative.");
-    }
-    Request request = new Request.Builder().url(resolveKeys(keys)).header(
-        "Range", String.format("Bytes=%d-%d", start, end + 1)).build();
-    return get(request);
+    return get(buildGetRequest(keys, start, end));
   }
 
   @Override
@@ -93,6 +134,59 @@ public class HttpStore implements Store {
     throw new UnsupportedOperationException("Not implemented");
   }
 
+  @Nonnull
+  @Override
+  public CompletableFuture<Boolean> existsAsync(String[] keys) {
+    CompletableFuture<Boolean> future = new CompletableFuture<>();
+    Request request = new Request.Builder().head().url(resolveKeys(keys)).build();
+    httpClient.newCall(request).enqueue(new Callback() {
+      @Override
+      public void onFailure(Request request, IOException e) {
+        future.complete(false);
+      }
+
+      @Override
+      public void onResponse(Response response) {
+        future.complete(response.isSuccessful());
+      }
+    });
+    return future;
+  }
+
+  @Nonnull
+  @Override
+  public CompletableFuture<ByteBuffer> getAsync(String[] keys) {
+    return getAsync(buildGetRequest(keys));
+  }
+
+  @Nonnull
+  @Override
+  public CompletableFuture<ByteBuffer> getAsync(String[] keys, long start) {
+    return getAsync(buildGetRequest(keys, start));
+  }
+
+  @Nonnull
+  @Override
+  public CompletableFuture<ByteBuffer> getAsync(String[] keys, long start, long end) {
+    return getAsync(buildGetRequest(keys, start, end));
+  }
+
+  @Nonnull
+  @Override
+  public CompletableFuture<Void> setAsync(String[] keys, ByteBuffer bytes) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    future.completeExceptionally(new UnsupportedOperationException("Not implemented"));
+    return future;
+  }
+
+  @Nonnull
+  @Override
+  public CompletableFuture<Void> deleteAsync(String[] keys) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    future.completeExceptionally(new UnsupportedOperationException("Not implemented"));
+    return future;
+  }
+
   @Nonnull
   @Override
   public StoreHandle resolve(String... keys) {
@@ -1,19 +1,34 @@
 package dev.zarr.zarrjava.store;
 
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
 import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import dev.zarr.zarrjava.utils.ParallelUtils;
 import dev.zarr.zarrjava.utils.Utils;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-public class S3Store implements Store, Store.ListableStore {
+public class S3Store implements Store, Store.ListableStore, Store.AsyncStore,
+    Store.StreamingStore {
+
+  static final int MULTIPART_PART_SIZE = 8 * 1024 * 1024;
 
   @Nonnull
   private final AmazonS3 s3client;
@@ -21,11 +36,29 @@ public class S3Store implements Store, Store.ListableStore {
   private final String bucketName;
   @Nullable
   private final String prefix;
+  @Nonnull
+  private final Executor executor;
 
   public S3Store(@Nonnull AmazonS3 s3client, @Nonnull String bucketName, @Nullable String prefix) {
+    this(s3client, bucketName, prefix, ParallelUtils.defaultIoExecutor());
+  }
+
+  /**
+   * Creates an S3 store whose asynchronous methods run on the provided executor. The AmazonS3
+   * client only offers blocking requests, so the executor determines how many requests can be in
+   * flight at the same time.
+   *
+   * @param s3client
+   * @param bucketName
+   * @param prefix
+   * @param executor
+   */
+  public S3Store(@Nonnull AmazonS3 s3client, @Nonnull String bucketName, @Nullable String prefix,
+      @Nonnull Executor executor) {
     this.s3client = s3client;
     this.bucketName = bucketName;
     this.prefix = prefix;
+    this.executor = executor;
   }
 
   String resolveKeys(String[] keys) {
@@ -80,11 +113,66 @@ public class S3Store implements Store, Store.ListableStore {
     }
   }
 
+  /**
+   * Uploads the value with a multipart upload, so that at most one part needs to be held in
+   * memory. Values that fit into a single part are uploaded with a regular put request.
+   */
+  @Override
+  public void set(String[] keys, ValueWriter writer) {
+    final MultipartOutputStream outputStream = new MultipartOutputStream(resolveKeys(keys));
+    try {
+      writer.writeTo(outputStream);
+      outputStream.complete();
+    } catch (IOException e) {
+      outputStream.abort();
+      throw new RuntimeException(e);
+    } catch (RuntimeException e) {
+      outputStream.abort();
+      throw e;
+    }
+  }
+
   @Override
   public void delete(String[] keys) {
     s3client.deleteObject(bucketName, resolveKeys(keys));
   }
 
+  @Nonnull
+  @Override
+  public CompletableFuture<Boolean> existsAsync(String[] keys) {
+    return CompletableFuture.supplyAsync(() -> exists(keys), executor);
+  }
+
+  @Nonnull
+  @Override
+  public CompletableFuture<ByteBuffer> getAsync(String[] keys) {
+    return CompletableFuture.supplyAsync(() -> get(keys), executor);
+  }
+
+  @Nonnull
+  @Override
+  public CompletableFuture<ByteBuffer> getAsync(String[] keys, long start) {
+    return CompletableFuture.supplyAsync(() -> get(keys, start), executor);
+  }
+
+  @Nonnull
+  @Override
+  public CompletableFuture<ByteBuffer> getAsync(String[] keys, long start, long end) {
+    return CompletableFuture.supplyAsync(() -> get(keys, start, end), executor);
+  }
+
+  @Nonnull
+  @Override
+  public CompletableFuture<Void> setAsync(String[] keys, ByteBuffer bytes) {
+    return CompletableFuture.runAsync(() -> set(keys, bytes), executor);
+  }
+
+  @Nonnull
+  @Override
+  public CompletableFuture<Void> deleteAsync(String[] keys) {
+    return CompletableFuture.runAsync(() -> delete(keys), executor);
+  }
+
   @Override
   public Stream<String> list(String[] keys) {
     final String fullKey = resolveKeys(keys);
@@ -104,4 +192,83 @@ public class S3Store implements Store, Store.ListableStore {
   public String toString() {
     return "s3://" + bucketName + "/" + prefix;
   }
+
+  final class MultipartOutputStream extends OutputStream {
+
+    @Nonnull
+    final String key;
+    final ByteArrayOutputStream partBuffer = new ByteArrayOutputStream();
+    final List<PartETag> partETags = new ArrayList<>();
+    @Nullable
+    String uploadId = null;
+
+    MultipartOutputStream(@Nonnull String key) {
+      this.key = key;
+    }
+
+    @Override
+    public void write(int b) {
+      partBuffer.write(b);
+      if (partBuffer.size() >= MULTIPART_PART_SIZE) {
+        uploadPart();
+      }
+    }
+
+    @Override
+    public void write(@Nonnull byte[] b, int off, int len) {
+      while (len > 0) {
+        final int partLen = Math.min(len, MULTIPART_PART_SIZE - partBuffer.size());
+        partBuffer.write(b, off, partLen);
+        off += partLen;
+        len -= partLen;
+        if (partBuffer.size() >= MULTIPART_PART_SIZE) {
+          uploadPart();
+        }
+      }
+    }
+
+    void uploadPart() {
+      if (uploadId == null) {
+        uploadId = s3client.initiateMultipartUpload(
+            new InitiateMultipartUploadRequest(bucketName, key)).getUploadId();
+      }
+      final byte[] partBytes = partBuffer.toByteArray();
+      partBuffer.reset();
+      partETags.add(s3client.uploadPart(new UploadPartRequest()
+          .withBucketName(bucketName)
+          .withKey(key)
+          .withUploadId(uploadId)
+          .withPartNumber(partETags.size() + 1)
+          .withInputStream(new ByteArrayInputStream(partBytes))
+          .withPartSize(partBytes.length)
+      ).getPartETag());
+    }
+
+    void complete() {
+      if (uploadId == null) {
+        final ObjectMetadata objectMetadata = new ObjectMetadata();
+        objectMetadata.setContentLength(partBuffer.size());
+        s3client.putObject(bucketName, key, new ByteArrayInputStream(partBuffer.toByteArray()),
+            objectMetadata);
+        return;
+      }
+      if (partBuffer.size() > 0) {
+        uploadPart();
+      }
+      s3client.completeMultipartUpload(
+          new CompleteMultipartUploadRequest(bucketName, key, uploadId, partETags));
+    }
+
+    void abort() {
+      if (uploadId == null) {
+        return;
+      }
+      try {
+        s3client.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, key, uploadId));
+      } catch (RuntimeException e) {
+        // ignore, the original failure is more relevant
+      }
+      uploadId = null;
+    }
+  }
 }
@@ -1,6 +1,9 @@
 package dev.zarr.zarrjava.store;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -29,4 +32,46 @@ public interface Store {
 
     Stream<String> list(String[] keys);
   }
+
+  /**
+   * A store that can serve requests without blocking the calling thread. The returned futures
+   * follow the semantics of the corresponding blocking methods, e.g. the `get` futures complete
+   * with null if the key does not exist.
+   */
+  interface AsyncStore extends Store {
+
+    @Nonnull
+    CompletableFuture<Boolean> existsAsync(String[] keys);
+
+    @Nonnull
+    CompletableFuture<ByteBuffer> getAsync(String[] keys);
+
+    @Nonnull
+    CompletableFuture<ByteBuffer> getAsync(String[] keys, long start);
+
+    @Nonnull
+    CompletableFuture<ByteBuffer> getAsync(String[] keys, long start, long end);
+
+    @Nonnull
+    CompletableFuture<Void> setAsync(String[] keys, ByteBuffer bytes);
+
+    @Nonnull
+    CompletableFuture<Void> deleteAsync(String[] keys);
+  }
+
+  /**
+   * A store that can receive a value as a stream of bytes, so that large values do not need to be
+   * held in memory as a whole. The value only becomes visible once the writer has finished
+   * successfully. If the writer fails, the previous value is kept.
+   */
+  interface StreamingStore extends Store {
+
+    void set(String[] keys, ValueWriter writer);
+  }
+
+  @FunctionalInterface
+  interface ValueWriter {
+
+    void writeTo(OutputStream outputStream) throws IOException;
+  }
 }
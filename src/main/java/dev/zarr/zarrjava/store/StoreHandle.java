@@ -1,8 +1,12 @@
 package dev.zarr.zarrjava.store;
 
+import dev.zarr.zarrjava.utils.ParallelUtils;
 import dev.zarr.zarrjava.utils.Utils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.NoSuchFileException;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -47,6 +51,24 @@ public class StoreHandle {
     store.set(keys, bytes);
   }
 
+  /**
+   * Writes the value as a stream of bytes. Stores that do not implement Store.StreamingStore are
+   * adapted by collecting the bytes in memory and setting them once the writer has finished.
+   */
+  public void set(Store.ValueWriter writer) {
+    if (store instanceof Store.StreamingStore) {
+      ((Store.StreamingStore) store).set(keys, writer);
+      return;
+    }
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try {
+      writer.writeTo(outputStream);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    set(ByteBuffer.wrap(outputStream.toByteArray()));
+  }
+
   public void delete() {
     store.delete(keys);
   }
@@ -55,6 +77,58 @@ public class StoreHandle {
     return store.exists(keys);
   }
 
+  /**
+   * Reads the value asynchronously. Stores that do not implement Store.AsyncStore are adapted by
+   * running the blocking request on ParallelUtils.defaultIoExecutor().
+   */
+  @Nonnull
+  public CompletableFuture<ByteBuffer> readAsync() {
+    if (store instanceof Store.AsyncStore) {
+      return ((Store.AsyncStore) store).getAsync(keys);
+    }
+    return CompletableFuture.supplyAsync(this::read, ParallelUtils.defaultIoExecutor());
+  }
+
+  @Nonnull
+  public CompletableFuture<ByteBuffer> readAsync(long start) {
+    if (store instanceof Store.AsyncStore) {
+      return ((Store.AsyncStore) store).getAsync(keys, start);
+    }
+    return CompletableFuture.supplyAsync(() -> read(start), ParallelUtils.defaultIoExecutor());
+  }
+
+  @Nonnull
+  public CompletableFuture<ByteBuffer> readAsync(long start, long end) {
+    if (store instanceof Store.AsyncStore) {
+      return ((Store.AsyncStore) store).getAsync(keys, start, end);
+    }
+    return CompletableFuture.supplyAsync(() -> read(start, end), ParallelUtils.defaultIoExecutor());
+  }
+
+  @Nonnull
+  public CompletableFuture<Void> setAsync(ByteBuffer bytes) {
+    if (store instanceof Store.AsyncStore) {
+      return ((Store.AsyncStore) store).setAsync(keys, bytes);
+    }
+    return CompletableFuture.runAsync(() -> set(bytes), ParallelUtils.defaultIoExecutor());
+  }
+
+  @Nonnull
+  public CompletableFuture<Void> deleteAsync() {
+    if (store instanceof Store.AsyncStore) {
+      return ((Store.AsyncStore) store).deleteAsync(keys);
+    }
+    return CompletableFuture.runAsync(this::delete, ParallelUtils.defaultIoExecutor());
+  }
+
+  @Nonnull
+  public CompletableFuture<Boolean> existsAsync() {
+    if (store instanceof Store.AsyncStore) {
+      return ((Store.AsyncStore) store).existsAsync(keys);
+    }
+    return CompletableFuture.supplyAsync(this::exists, ParallelUtils.defaultIoExecutor());
+  }
+
   public Stream<String> list() {
     if (!(store instanceof Store.ListableStore)) {
       throw new UnsupportedOperationException("The underlying store does not support listing.");
@@ -0,0 +1,193 @@
+package dev.zarr.zarrjava.utils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A pool of reusable byte buffers for the scratch memory of the codecs. Buffers are grouped into
+ * size classes of powers of two, separately for heap and direct buffers. Returned buffers are
+ * retained up to a configurable number of bytes; buffers below `MIN_POOLED_CAPACITY` are not
+ * pooled at all. The codecs use the default pool, which can be replaced with `setDefault`.
+ */
+public class BufferPool {
+
+  public static final int MIN_POOLED_CAPACITY = 64 * 1024;
+  public static final long DEFAULT_MAX_POOLED_BYTES = 256L * 1024 * 1024;
+  private static final int MIN_SIZE_CLASS = sizeClass(MIN_POOLED_CAPACITY);
+  private static final int MAX_SIZE_CLASS = 30;
+
+  private static volatile BufferPool defaultPool = new BufferPool(DEFAULT_MAX_POOLED_BYTES);
+
+  private final ArrayDeque<ByteBuffer>[] heapBuffers = newSizeClasses();
+  private final ArrayDeque<ByteBuffer>[] directBuffers = newSizeClasses();
+  private final Set<ByteBuffer> borrowedBuffers =
+      Collections.newSetFromMap(new IdentityHashMap<>());
+  private long maxPooledBytes;
+  private long pooledBytes = 0;
+  private long inUseBytes = 0;
+  private long hitCount = 0;
+  private long missCount = 0;
+
+  public BufferPool(long maxPooledBytes) {
+    setMaxPooledBytes(maxPooledBytes);
+  }
+
+  @Nonnull
+  public static BufferPool getDefault() {
+    return defaultPool;
+  }
+
+  /**
+   * Replaces the pool that is used by the codecs.
+   *
+   * @param bufferPool
+   */
+  public static void setDefault(@Nonnull BufferPool bufferPool) {
+    defaultPool = bufferPool;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ArrayDeque<ByteBuffer>[] newSizeClasses() {
+    ArrayDeque<ByteBuffer>[] sizeClasses = new ArrayDeque[MAX_SIZE_CLASS + 1];
+    for (int i = MIN_SIZE_CLASS; i <= MAX_SIZE_CLASS; i++) {
+      sizeClasses[i] = new ArrayDeque<>();
+    }
+    return sizeClasses;
+  }
+
+  private static int sizeClass(int capacity) {
+    return 32 - Integer.numberOfLeadingZeros(Math.max(capacity, 1) - 1);
+  }
+
+  /**
+   * Borrows a heap buffer with at least the requested capacity. The buffer is positioned at 0 and
+   * its limit is set to the requested capacity. It should be handed back with `release`.
+   *
+   * @param capacity
+   */
+  @Nonnull
+  public ByteBuffer acquire(int capacity) {
+    return acquire(capacity, false);
+  }
+
+  /**
+   * Borrows a direct buffer with at least the requested capacity. The buffer is positioned at 0
+   * and its limit is set to the requested capacity. It should be handed back with `release`.
+   *
+   * @param capacity
+   */
+  @Nonnull
+  public ByteBuffer acquireDirect(int capacity) {
+    return acquire(capacity, true);
+  }
+
+  private ByteBuffer acquire(int capacity, boolean direct) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("'capacity' needs to be non-negative.");
+    }
+    final int sizeClass = sizeClass(capacity);
+    if (sizeClass < MIN_SIZE_CLASS || sizeClass > MAX_SIZE_CLASS) {
+      return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+    ByteBuffer buffer;
+    synchronized (this) {
+      buffer = (direct ? directBuffers : heapBuffers)[sizeClass].pollLast();
+      if (buffer == null) {
+        missCount++;
+      } else {
+        hitCount++;
+        pooledBytes -= buffer.capacity();
+      }
+      inUseBytes += 1L << sizeClass;
+    }
+    if (buffer == null) {
+      buffer = direct ? ByteBuffer.allocateDirect(1 << sizeClass)
+          : ByteBuffer.allocate(1 << sizeClass);
+    }
+    synchronized (this) {
+      borrowedBuffers.add(buffer);
+    }
+    buffer.clear();
+    buffer.limit(capacity);
+    return buffer;
+  }
+
+  /**
+   * Returns a buffer that was borrowed with `acquire` or `acquireDirect`. The buffer must not be
+   * used afterwards. Buffers that were not borrowed from this pool, or that were already returned,
+   * are ignored.
+   *
+   * @param buffer
+   */
+  public void release(@Nullable ByteBuffer buffer) {
+    if (buffer == null) {
+      return;
+    }
+    final int sizeClass = sizeClass(buffer.capacity());
+    synchronized (this) {
+      if (!borrowedBuffers.remove(buffer)) {
+        return;
+      }
+      inUseBytes -= buffer.capacity();
+      if (pooledBytes + buffer.capacity() > maxPooledBytes) {
+        return;
+      }
+      (buffer.isDirect() ? directBuffers : heapBuffers)[sizeClass].addLast(buffer);
+      pooledBytes += buffer.capacity();
+    }
+  }
+
+  public synchronized void clear() {
+    for (int i = MIN_SIZE_CLASS; i <= MAX_SIZE_CLASS; i++) {
+      heapBuffers[i].clear();
+      directBuffers[i].clear();
+    }
+    pooledBytes = 0;
+  }
+
+  /**
+   * Sets the maximum number of bytes that are retained in the pool. A size of 0 disables pooling.
+   *
+   * @param maxPooledBytes
+   */
+  public synchronized void setMaxPooledBytes(long maxPooledBytes) {
+    if (maxPooledBytes < 0) {
+      throw new IllegalArgumentException("'maxPooledBytes' needs to be non-negative.");
+    }
+    this.maxPooledBytes = maxPooledBytes;
+    if (pooledBytes > maxPooledBytes) {
+      clear();
+    }
+  }
+
+  public synchronized long getMaxPooledBytes() {
+    return maxPooledBytes;
+  }
+
+  /**
+   * Returns the number of bytes that are retained in the pool and ready to be borrowed.
+   */
+  public synchronized long getPooledBytes() {
+    return pooledBytes;
+  }
+
+  /**
+   * Returns the number of bytes in pooled size classes that are currently borrowed.
+   */
+  public synchronized long getInUseBytes() {
+    return inUseBytes;
+  }
+
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+}
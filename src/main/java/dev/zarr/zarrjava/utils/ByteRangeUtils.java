@@ -0,0 +1,114 @@
+package dev.zarr.zarrjava.utils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+public class ByteRangeUtils {
+
+  /**
+   * Merges byte ranges into fewer, larger ranges. The ranges are sorted by their start and two
+   * neighboring ranges are merged if the gap between them is at most `maxGap` bytes and the merged
+   * range does not exceed `maxRangeLength` bytes. Ranges that are longer than `maxRangeLength` by
+   * themselves are kept as they are.
+   *
+   * @param starts  The start offsets of the requested ranges.
+   * @param lengths The lengths of the requested ranges.
+   * @param maxGap
+   * @param maxRangeLength
+   * @return The merged ranges in ascending order. Each merged range references the indices of the
+   * requested ranges that it covers.
+   */
+  @Nonnull
+  public static List<CoalescedRange> coalesce(
+      @Nonnull long[] starts, @Nonnull long[] lengths, long maxGap, long maxRangeLength
+  ) {
+    if (starts.length != lengths.length) {
+      throw new IllegalArgumentException("'starts' and 'lengths' need to have the same length.");
+    }
+    final int[] order = IntStream.range(0, starts.length)
+        .boxed()
+        .sorted(Comparator.comparingLong(i -> starts[i]))
+        .mapToInt(Integer::intValue)
+        .toArray();
+
+    final List<CoalescedRange> coalescedRanges = new ArrayList<>();
+    CoalescedRange current = null;
+    for (int i : order) {
+      final long start = starts[i];
+      final long end = start + lengths[i];
+      if (current != null && start - current.end <= maxGap
+          && Math.max(current.end, end) - current.start <= maxRangeLength) {
+        current.end = Math.max(current.end, end);
+        current.add(i);
+      } else {
+        current = new CoalescedRange(start, end);
+        current.add(i);
+        coalescedRanges.add(current);
+      }
+    }
+    return coalescedRanges;
+  }
+
+  /**
+   * Returns a zero-copy view of `length` bytes of `buffer`, starting `offset` bytes after the
+   * current position of `buffer`. Returns null if the buffer is too short.
+   *
+   * @param buffer
+   * @param offset
+   * @param length
+   */
+  @Nullable
+  public static ByteBuffer slice(@Nonnull ByteBuffer buffer, long offset, long length) {
+    if (offset < 0 || offset + length > buffer.remaining()) {
+      return null;
+    }
+    final ByteBuffer bufferSlice = buffer.duplicate();
+    bufferSlice.position(buffer.position() + (int) offset);
+    bufferSlice.limit(buffer.position() + (int) (offset + length));
+    return bufferSlice.slice();
+  }
+
+  public static final class CoalescedRange {
+
+    public final long start;
+    long end;
+    int[] members = new int[4];
+    int memberCount = 0;
+
+    CoalescedRange(long start, long end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    void add(int member) {
+      if (memberCount == members.length) {
+        members = Arrays.copyOf(members, 2 * members.length);
+      }
+      members[memberCount++] = member;
+    }
+
+    /**
+     * The exclusive end offset of the merged range.
+     */
+    public long end() {
+      return end;
+    }
+
+    public long length() {
+      return end - start;
+    }
+
+    /**
+     * The indices of the requested ranges that are covered by this merged range.
+     */
+    public int[] members() {
+      return Arrays.copyOf(members, memberCount);
+    }
+  }
+}
@@ -1,93 +1,92 @@
 package dev.zarr.zarrjava.utils;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.zip.Checksum;
+import javax.annotation.Nullable;
 
 // Copyright 2011 Google Inc. All rights reserved.
+/**
+ * This class generates a CRC32C checksum, defined by rfc3720 section B.4. On Java 9 and later, the
+ * computation is delegated to java.util.zip.CRC32C, which the JVM implements with hardware
+ * instructions. On Java 8, a table-driven slicing-by-8 implementation is used, which processes 8
+ * bytes per step.
+ */
 public class CRC32C implements Checksum {
 
+  private static final int POLYNOMIAL = 0x82F63B78;
 
-  /**
-   * This class generates a CRC32C checksum, defined by rfc3720 section B.4.
-   */
+  @Nullable
+  private static final MethodHandle JDK_CONSTRUCTOR;
+  @Nullable
+  private static final MethodHandle JDK_UPDATE_BYTE_BUFFER;
+
+  static {
+    MethodHandle constructor = null;
+    MethodHandle updateByteBuffer = null;
+    try {
+      Class<?> jdkClass = Class.forName("java.util.zip.CRC32C");
+      constructor = MethodHandles.publicLookup()
+          .findConstructor(jdkClass, MethodType.methodType(void.class))
+          .asType(MethodType.methodType(Checksum.class));
+      updateByteBuffer = MethodHandles.publicLookup()
+          .findVirtual(jdkClass, "update", MethodType.methodType(void.class, ByteBuffer.class))
+          .asType(MethodType.methodType(void.class, Checksum.class, ByteBuffer.class));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // Java 8: fall back to the table-driven implementation.
+      constructor = null;
+      updateByteBuffer = null;
+    }
+    JDK_CONSTRUCTOR = constructor;
+    JDK_UPDATE_BYTE_BUFFER = updateByteBuffer;
+  }
+
+  private static final class Tables {
 
-  private static final long[] CRC_TABLE =
-      {
-          0x00000000, 0xf26b8303, 0xe13b70f7, 0x1350f3f4, 0xc79a971f, 0x35f1141c, 0x26a1e7e8,
-          0xd4ca64eb,
-          0x8ad958cf,
-          0x78b2dbcc, 0x6be22838, 0x9989ab3b, 0x4d43cfd0, 0xbf284cd3, 0xac78bf27, 0x5e133c24,
-          0x105ec76f,
-          0xe235446c, 0xf165b798, 0x030e349b, 0xd7c45070, 0x25afd373, 0x36ff2087, 0xc494a384,
-          0x9a879fa0,
-          0x68ec1ca3, 0x7bbcef57, 0x89d76c54, 0x5d1d08bf, 0xaf768bbc, 0xbc267848, 0x4e4dfb4b,
-          0x20bd8ede,
-          0xd2d60ddd, 0xc186fe29, 0x33ed7d2a, 0xe72719c1, 0x154c9ac2, 0x061c6936, 0xf477ea35,
-          0xaa64d611,
-          0x580f5512, 0x4b5fa6e6, 0xb93425e5, 0x6dfe410e, 0x9f95c20d, 0x8cc531f9, 0x7eaeb2fa,
-          0x30e349b1,
-          0xc288cab2, 0xd1d83946, 0x23b3ba45, 0xf779deae, 0x05125dad, 0x1642ae59, 0xe4292d5a,
-          0xba3a117e,
-          0x4851927d, 0x5b016189, 0xa96ae28a, 0x7da08661, 0x8fcb0562, 0x9c9bf696, 0x6ef07595,
-          0x417b1dbc,
-          0xb3109ebf, 0xa0406d4b, 0x522bee48, 0x86e18aa3, 0x748a09a0, 0x67dafa54, 0x95b17957,
-          0xcba24573,
-          0x39c9c670, 0x2a993584, 0xd8f2b687, 0x0c38d26c, 0xfe53516f, 0xed03a29b, 0x1f682198,
-          0x5125dad3,
-          0xa34e59d0, 0xb01eaa24, 0x42752927, 0x96bf4dcc, 0x64d4cecf, 0x77843d3b, 0x85efbe38,
-          0xdbfc821c,
-          0x2997011f, 0x3ac7f2eb, 0xc8ac71e8, 0x1c661503, 0xee0d9600, 0xfd5d65f4, 0x0f36e6f7,
-          0x61c69362,
-          0x93ad1061, 0x80fde395, 0x72966096, 0xa65c047d, 0x5437877e, 0x4767748a, 0xb50cf789,
-          0xeb1fcbad,
-          0x197448ae, 0x0a24bb5a, 0xf84f3859, 0x2c855cb2, 0xdeeedfb1, 0xcdbe2c45, 0x3fd5af46,
-          0x7198540d,
-          0x83f3d70e, 0x90a324fa, 0x62c8a7f9, 0xb602c312, 0x44694011, 0x5739b3e5, 0xa55230e6,
-          0xfb410cc2,
-          0x092a8fc1, 0x1a7a7c35, 0xe811ff36, 0x3cdb9bdd, 0xceb018de, 0xdde0eb2a, 0x2f8b6829,
-          0x82f63b78,
-          0x709db87b, 0x63cd4b8f, 0x91a6c88c, 0x456cac67, 0xb7072f64, 0xa457dc90, 0x563c5f93,
-          0x082f63b7,
-          0xfa44e0b4, 0xe9141340, 0x1b7f9043, 0xcfb5f4a8, 0x3dde77ab, 0x2e8e845f, 0xdce5075c,
-          0x92a8fc17,
-          0x60c37f14, 0x73938ce0, 0x81f80fe3, 0x55326b08, 0xa759e80b, 0xb4091bff, 0x466298fc,
-          0x1871a4d8,
-          0xea1a27db, 0xf94ad42f, 0x0b21572c, 0xdfeb33c7, 0x2d80b0c4, 0x3ed04330, 0xccbbc033,
-          0xa24bb5a6,
-          0x502036a5, 0x4370c551, 0xb11b4652, 0x65d122b9, 0x97baa1ba, 0x84ea524e, 0x7681d14d,
-          0x2892ed69,
-          0xdaf96e6a, 0xc9a99d9e, 0x3bc21e9d, 0xef087a76, 0x1d63f975, 0x0e330a81, 0xfc588982,
-          0xb21572c9,
-          0x407ef1ca, 0x532e023e, 0xa145813d, 0x758fe5d6, 0x87e466d5, 0x94b49521, 0x66df1622,
-          0x38cc2a06,
-          0xcaa7a905, 0xd9f75af1, 0x2b9cd9f2, 0xff56bd19, 0x0d3d3e1a, 0x1e6dcdee, 0xec064eed,
-          0xc38d26c4,
-          0x31e6a5c7, 0x22b65633, 0xd0ddd530, 0x0417b1db, 0xf67c32d8, 0xe52cc12c, 0x1747422f,
-          0x49547e0b,
-          0xbb3ffd08, 0xa86f0efc, 0x5a048dff, 0x8ecee914, 0x7ca56a17, 0x6ff599e3, 0x9d9e1ae0,
-          0xd3d3e1ab,
-          0x21b862a8, 0x32e8915c, 0xc083125f, 0x144976b4, 0xe622f5b7, 0xf5720643, 0x07198540,
-          0x590ab964,
-          0xab613a67, 0xb831c993, 0x4a5a4a90, 0x9e902e7b, 0x6cfbad78, 0x7fab5e8c, 0x8dc0dd8f,
-          0xe330a81a,
-          0x115b2b19, 0x020bd8ed, 0xf0605bee, 0x24aa3f05, 0xd6c1bc06, 0xc5914ff2, 0x37faccf1,
-          0x69e9f0d5,
-          0x9b8273d6, 0x88d28022, 0x7ab90321, 0xae7367ca, 0x5c18e4c9, 0x4f48173d, 0xbd23943e,
-          0xf36e6f75,
-          0x0105ec76, 0x12551f82, 0xe03e9c81, 0x34f4f86a, 0xc69f7b69, 0xd5cf889d, 0x27a40b9e,
-          0x79b737ba,
-          0x8bdcb4b9, 0x988c474d, 0x6ae7c44e, 0xbe2da0a5, 0x4c4623a6, 0x5f16d052, 0xad7d5351
-      };
-
-  private static final long LONG_MASK = 0xffffffffL;
-  private static final long BYTE_MASK = 0xff;
-
-  private long crc;
+    // TABLES[k][b] is the CRC of byte b followed by k zero bytes.
+    static final int[][] TABLES = new int[8][256];
+
+    static {
+      for (int i = 0; i < 256; i++) {
+        int crc = i;
+        for (int bit = 0; bit < 8; bit++) {
+          crc = (crc >>> 1) ^ ((crc & 1) != 0 ? POLYNOMIAL : 0);
+        }
+        TABLES[0][i] = crc;
+      }
+      for (int k = 1; k < 8; k++) {
+        for (int i = 0; i < 256; i++) {
+          int previous = TABLES[k - 1][i];
+          TABLES[k][i] = (previous >>> 8) ^ TABLES[0][previous & 0xff];
+        }
+      }
+    }
+  }
+
+  @Nullable
+  private final Checksum jdkChecksum;
+  private int crc;
 
   public CRC32C() {
+    jdkChecksum = createJdkChecksum();
     crc = 0;
   }
 
+  @Nullable
+  private static Checksum createJdkChecksum() {
+    if (JDK_CONSTRUCTOR == null) {
+      return null;
+    }
+    try {
+      return (Checksum) JDK_CONSTRUCTOR.invokeExact();
+    } catch (Throwable e) {
+      return null;
+    }
+  }
+
   /**
    * Updates the checksum with a new byte.
    *
@@ -95,9 +94,13 @@ public class CRC32C implements Checksum {
    */
   @Override
   public void update(int b) {
-    long newCrc = crc ^ LONG_MASK;
-    newCrc = updateByte((byte) b, newCrc);
-    crc = newCrc ^ LONG_MASK;
+    if (jdkChecksum != null) {
+      jdkChecksum.update(b);
+      return;
+    }
+    int newCrc = ~crc;
+    newCrc = (newCrc >>> 8) ^ Tables.TABLES[0][(newCrc ^ b) & 0xff];
+    crc = ~newCrc;
   }
 
   /**
@@ -109,19 +112,66 @@ public class CRC32C implements Checksum {
    */
   @Override
   public void update(byte[] bArray, int off, int len) {
-    long newCrc = crc ^ LONG_MASK;
-    for (int i = off; i < off + len; i++) {
-      newCrc = updateByte(bArray[i], newCrc);
+    if (jdkChecksum != null) {
+      jdkChecksum.update(bArray, off, len);
+      return;
     }
-    crc = newCrc ^ LONG_MASK;
+    crc = ~updateSlicingBy8(~crc, ByteBuffer.wrap(bArray, off, len));
   }
 
+  /**
+   * Updates the checksum with the remaining bytes of the buffer. The position of the buffer is
+   * advanced to its limit. Neither heap nor direct buffers are copied.
+   *
+   * @param buf the buffer.
+   */
   public void update(ByteBuffer buf) {
-    long newCrc = crc ^ LONG_MASK;
-    while (buf.remaining() > 0) {
-      newCrc = updateByte(buf.get(), newCrc);
+    if (jdkChecksum != null) {
+      if (buf.hasArray()) {
+        jdkChecksum.update(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+        buf.position(buf.limit());
+        return;
+      }
+      if (JDK_UPDATE_BYTE_BUFFER != null) {
+        try {
+          JDK_UPDATE_BYTE_BUFFER.invokeExact(jdkChecksum, buf);
+        } catch (RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable e) {
+          throw new RuntimeException(e);
+        }
+        return;
+      }
+    }
+    crc = ~updateSlicingBy8(~crc, buf.duplicate());
+    buf.position(buf.limit());
+  }
+
+  private static int updateSlicingBy8(int crc, ByteBuffer buffer) {
+    final int[][] tables = Tables.TABLES;
+    final int[] t0 = tables[0];
+    final int[] t1 = tables[1];
+    final int[] t2 = tables[2];
+    final int[] t3 = tables[3];
+    final int[] t4 = tables[4];
+    final int[] t5 = tables[5];
+    final int[] t6 = tables[6];
+    final int[] t7 = tables[7];
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    int position = buffer.position();
+    final int limit = buffer.limit();
+    for (; position + 8 <= limit; position += 8) {
+      final long word = buffer.getLong(position);
+      final int low = (int) word ^ crc;
+      final int high = (int) (word >>> 32);
+      crc = t7[low & 0xff] ^ t6[(low >>> 8) & 0xff] ^ t5[(low >>> 16) & 0xff] ^ t4[low >>> 24]
+          ^ t3[high & 0xff] ^ t2[(high >>> 8) & 0xff] ^ t1[(high >>> 16) & 0xff]
+          ^ t0[high >>> 24];
+    }
+    for (; position < limit; position++) {
+      crc = (crc >>> 8) ^ t0[(crc ^ buffer.get(position)) & 0xff];
     }
-    crc = newCrc ^ LONG_MASK;
+    return crc;
   }
 
   /**
@@ -131,7 +181,10 @@ public class CRC32C implements Checksum {
    */
   @Override
   public long getValue() {
-    return crc;
+    if (jdkChecksum != null) {
+      return jdkChecksum.getValue();
+    }
+    return crc & 0xffffffffL;
   }
 
   /**
@@ -140,7 +193,7 @@ public class CRC32C implements Checksum {
    * @return the 4-byte array representation of the checksum in network byte order (big endian).
    */
   public byte[] getValueAsBytes() {
-    long value = crc;
+    long value = getValue();
     byte[] result = new byte[4];
     for (int i = 3; i >= 0; i--) {
       result[i] = (byte) (value & 0xffL);
@@ -154,12 +207,19 @@ public class CRC32C implements Checksum {
    */
   @Override
   public void reset() {
+    if (jdkChecksum != null) {
+      jdkChecksum.reset();
+    }
     crc = 0;
   }
 
-  private long updateByte(byte newByte, long crc) {
-    byte b = (byte) (newByte & BYTE_MASK);
-    int index = (int) ((crc ^ b) & BYTE_MASK);
-    return (CRC_TABLE[index] ^ (crc >> 8)) & LONG_MASK;
+  /**
+   * Computes the checksum of the remaining bytes with the slicing-by-8 implementation, regardless
+   * of the Java version. The position of the buffer is not changed.
+   *
+   * @param buffer the buffer.
+   */
+  public static long computeTableDriven(ByteBuffer buffer) {
+    return ~updateSlicingBy8(~0, buffer.duplicate()) & 0xffffffffL;
   }
-}
\ No newline at end of file
+}
@@ -1,51 +1,100 @@
 package dev.zarr.zarrjava.utils;
 
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nonnull;
 
 public class IndexingUtils {
 
   public static long[][] computeChunkCoords(long[] arrayShape, int[] chunkShape) {
-    return computeChunkCoords(arrayShape, chunkShape, new long[arrayShape.length],
-        Utils.toIntArray(arrayShape));
+    return toChunkCoordsArray(computeChunkCoordsRange(arrayShape, chunkShape));
   }
 
   public static long[][] computeChunkCoords(int[] arrayShape, int[] chunkShape) {
     return computeChunkCoords(Utils.toLongArray(arrayShape), chunkShape);
   }
 
+  /**
+   * Returns the coordinates of the chunks that intersect with the selection in C order.
+   *
+   * @param arrayShape is not used
+   * @param chunkShape
+   * @param selOffset
+   * @param selShape
+   * @deprecated Use `computeChunkCoordsRange(chunkShape, selOffset, selShape, order)`, which does
+   * not allocate the coordinates of every chunk.
+   */
+  @Deprecated
   public static long[][] computeChunkCoords(long[] arrayShape, int[] chunkShape, long[] selOffset,
       int[] selShape) {
-    final int ndim = arrayShape.length;
-    long[] start = new long[ndim];
-    long[] end = new long[ndim];
-    int numChunks = 1;
-    for (int dimIdx = 0; dimIdx < ndim; dimIdx++) {
-      final int staIdx = (int) (selOffset[dimIdx] / chunkShape[dimIdx]);
-      final int endIdx = (int) ((selOffset[dimIdx] + selShape[dimIdx] - 1) / chunkShape[dimIdx]);
-      numChunks *= (endIdx - staIdx + 1);
-      start[dimIdx] = staIdx;
-      end[dimIdx] = endIdx;
-    }
-
-    final long[][] chunkCoords = new long[numChunks][];
+    return toChunkCoordsArray(computeChunkCoordsRange(chunkShape, selOffset,
+        Utils.toLongArray(selShape), TraversalOrder.C));
+  }
 
-    final long[] currentIdx = Arrays.copyOf(start, ndim);
+  private static long[][] toChunkCoordsArray(ChunkCoordsRange chunkCoordsRange) {
+    final long[][] chunkCoords = new long[Math.toIntExact(chunkCoordsRange.size())][];
     for (int i = 0; i < chunkCoords.length; i++) {
-      chunkCoords[i] = Arrays.copyOf(currentIdx, ndim);
-      int dimIdx = ndim - 1;
-      while (dimIdx >= 0) {
-        if (currentIdx[dimIdx] >= end[dimIdx]) {
-          currentIdx[dimIdx] = start[dimIdx];
-          dimIdx--;
-        } else {
-          currentIdx[dimIdx]++;
-          dimIdx = -1;
-        }
-      }
+      chunkCoords[i] = chunkCoordsRange.computeChunkCoords(i);
     }
     return chunkCoords;
   }
 
+  /**
+   * Returns the range of the coordinates of all chunks of the array in C order.
+   *
+   * @param arrayShape
+   * @param chunkShape
+   */
+  public static ChunkCoordsRange computeChunkCoordsRange(final long[] arrayShape,
+      final int[] chunkShape) {
+    return computeChunkCoordsRange(chunkShape, new long[arrayShape.length], arrayShape,
+        TraversalOrder.C);
+  }
+
+  /**
+   * Returns the range of the coordinates of the chunks that intersect with the selection in the
+   * provided traversal order. The coordinates are computed on demand, so the range does not
+   * allocate memory per chunk.
+   *
+   * @param chunkShape
+   * @param selOffset
+   * @param selShape
+   * @param order
+   */
+  public static ChunkCoordsRange computeChunkCoordsRange(final int[] chunkShape,
+      final long[] selOffset, final long[] selShape, final TraversalOrder order) {
+    final int ndim = chunkShape.length;
+    final long[] start = new long[ndim];
+    final long[] end = new long[ndim];
+    for (int dimIdx = 0; dimIdx < ndim; dimIdx++) {
+      start[dimIdx] = selOffset[dimIdx] / chunkShape[dimIdx];
+      // An empty selection results in end < start and therefore in an empty range.
+      end[dimIdx] = selShape[dimIdx] <= 0 ? start[dimIdx] - 1
+          : (selOffset[dimIdx] + selShape[dimIdx] - 1) / chunkShape[dimIdx];
+    }
+    return new ChunkCoordsRange(start, end, order);
+  }
+
+  /**
+   * Returns the coordinates of the chunks that intersect with the selection in the provided
+   * traversal order. In contrast to `computeChunkCoords`, the coordinates are computed lazily, one
+   * chunk at a time. Every returned array is a new instance.
+   *
+   * @param chunkShape
+   * @param selOffset
+   * @param selShape
+   * @param order
+   */
+  public static Iterator<long[]> iterateChunkCoords(final int[] chunkShape,
+      final long[] selOffset, final long[] selShape, final TraversalOrder order) {
+    return computeChunkCoordsRange(chunkShape, selOffset, selShape, order).stream().iterator();
+  }
+
   public static ChunkProjection computeProjection(long[] chunkCoords, int[] arrayShape,
       int[] chunkShape) {
     return computeProjection(chunkCoords, Utils.toLongArray(arrayShape), chunkShape);
@@ -87,7 +136,7 @@ public class IndexingUtils {
 
       if (selOffset[dimIdx] + selShape[dimIdx] > dimLimit) {
         // selection ends after current chunk
-        shape[dimIdx] = (int) (chunkShape[dimIdx] - (selOffset[dimIdx] % chunkShape[dimIdx]));
+        shape[dimIdx] = (int) (dimLimit - dimOffset - chunkOffset[dimIdx]);
       } else {
         // selection ends within current chunk
         shape[dimIdx] = (int) (selOffset[dimIdx] + selShape[dimIdx] - dimOffset
@@ -170,6 +219,205 @@ public class IndexingUtils {
     return chunkCoords;
   }
 
+  /**
+   * The order in which chunks are visited. In C order, the last dimension changes fastest, in F
+   * order, the first dimension changes fastest.
+   */
+  public enum TraversalOrder {
+    C,
+    F
+  }
+
+  /**
+   * The coordinates of a box of chunks, enumerated in a traversal order. Every chunk has a linear
+   * index between 0 and `size()`, which can be converted to its coordinates. The coordinates are
+   * computed on demand instead of being stored per chunk.
+   */
+  public static final class ChunkCoordsRange {
+
+    final long[] start;
+    final long[] end;
+    final long[] count;
+    @Nonnull
+    final TraversalOrder order;
+    final long size;
+
+    /**
+     * @param start the coordinates of the first chunk
+     * @param end   the coordinates of the last chunk, inclusive
+     * @param order
+     */
+    public ChunkCoordsRange(final long[] start, final long[] end,
+        @Nonnull final TraversalOrder order) {
+      if (start.length != end.length) {
+        throw new IllegalArgumentException("'start' and 'end' need to have the same rank.");
+      }
+      this.start = start.clone();
+      this.end = end.clone();
+      this.order = order;
+      this.count = new long[start.length];
+      long size = 1;
+      for (int dimIdx = 0; dimIdx < start.length; dimIdx++) {
+        count[dimIdx] = Math.max(end[dimIdx] - start[dimIdx] + 1, 0);
+        size = Math.multiplyExact(size, count[dimIdx]);
+      }
+      this.size = size;
+    }
+
+    public int ndim() {
+      return start.length;
+    }
+
+    /**
+     * Returns the number of chunks in the range.
+     */
+    public long size() {
+      return size;
+    }
+
+    /**
+     * Writes the coordinates of the chunk with the provided linear index into `chunkCoords` and
+     * returns it.
+     *
+     * @param linearIndex
+     * @param chunkCoords
+     */
+    public long[] computeChunkCoords(long linearIndex, final long[] chunkCoords) {
+      if (linearIndex < 0 || linearIndex >= size) {
+        throw new IndexOutOfBoundsException("Linear index " + linearIndex + " is out of range.");
+      }
+      final int ndim = ndim();
+      for (int i = 0; i < ndim; i++) {
+        final int dimIdx = order == TraversalOrder.C ? ndim - 1 - i : i;
+        chunkCoords[dimIdx] = start[dimIdx] + linearIndex % count[dimIdx];
+        linearIndex /= count[dimIdx];
+      }
+      return chunkCoords;
+    }
+
+    public long[] computeChunkCoords(long linearIndex) {
+      return computeChunkCoords(linearIndex, new long[ndim()]);
+    }
+
+    /**
+     * Returns the linear index of the chunk with the provided coordinates.
+     *
+     * @param chunkCoords
+     */
+    public long computeLinearIndex(final long[] chunkCoords) {
+      final int ndim = ndim();
+      long linearIndex = 0;
+      for (int i = 0; i < ndim; i++) {
+        final int dimIdx = order == TraversalOrder.C ? i : ndim - 1 - i;
+        if (chunkCoords[dimIdx] < start[dimIdx] || chunkCoords[dimIdx] > end[dimIdx]) {
+          throw new IndexOutOfBoundsException(
+              "Chunk " + Arrays.toString(chunkCoords) + " is out of range.");
+        }
+        linearIndex = linearIndex * count[dimIdx] + chunkCoords[dimIdx] - start[dimIdx];
+      }
+      return linearIndex;
+    }
+
+    /**
+     * Advances `chunkCoords` to the coordinates of the next chunk in traversal order. Returns
+     * false if `chunkCoords` were the coordinates of the last chunk.
+     */
+    boolean increment(final long[] chunkCoords) {
+      final int ndim = ndim();
+      for (int i = 0; i < ndim; i++) {
+        final int dimIdx = order == TraversalOrder.C ? ndim - 1 - i : i;
+        if (chunkCoords[dimIdx] >= end[dimIdx]) {
+          chunkCoords[dimIdx] = start[dimIdx];
+        } else {
+          chunkCoords[dimIdx]++;
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Returns the linear indices of all chunks in traversal order.
+     */
+    public LongStream linearIndices() {
+      return LongStream.range(0, size);
+    }
+
+    /**
+     * Returns a spliterator over the coordinates of all chunks in traversal order. To avoid an
+     * allocation per chunk, the same array is passed to the action for every chunk and is
+     * overwritten afterwards, so it must not be retained. The spliterator can be split for parallel
+     * streams, in which case every part has its own array.
+     */
+    public Spliterator<long[]> spliterator() {
+      return new ChunkCoordsSpliterator(this, 0, size);
+    }
+
+    /**
+     * Returns a stream over the coordinates of all chunks in traversal order. Unlike
+     * `spliterator()`, every element is a new array.
+     */
+    public Stream<long[]> stream() {
+      return StreamSupport.stream(spliterator(), false).map(long[]::clone);
+    }
+  }
+
+  private static final class ChunkCoordsSpliterator implements Spliterator<long[]> {
+
+    final ChunkCoordsRange range;
+    long index;
+    final long fence;
+    // The coordinates of the chunk at `index`, and a copy of them that is handed out, so that
+    // modifications by the action do not affect the traversal.
+    final long[] position;
+    final long[] chunkCoords;
+
+    ChunkCoordsSpliterator(ChunkCoordsRange range, long index, long fence) {
+      this.range = range;
+      this.index = index;
+      this.fence = fence;
+      this.position = new long[range.ndim()];
+      this.chunkCoords = new long[range.ndim()];
+      if (index < fence) {
+        range.computeChunkCoords(index, position);
+      }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super long[]> action) {
+      if (index >= fence) {
+        return false;
+      }
+      System.arraycopy(position, 0, chunkCoords, 0, position.length);
+      index++;
+      range.increment(position);
+      action.accept(chunkCoords);
+      return true;
+    }
+
+    @Override
+    public Spliterator<long[]> trySplit() {
+      final long mid = index + (fence - index) / 2;
+      if (mid <= index) {
+        return null;
+      }
+      final Spliterator<long[]> prefix = new ChunkCoordsSpliterator(range, index, mid);
+      index = mid;
+      range.computeChunkCoords(mid, position);
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+  }
+
   public static final class ChunkProjection {
 
     final public long[] chunkCoords;
@@ -1,9 +1,13 @@
 package dev.zarr.zarrjava.utils;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import ucar.ma2.Array;
+import ucar.ma2.Index;
 import ucar.ma2.IndexIterator;
 import ucar.ma2.InvalidRangeException;
 import ucar.ma2.Range;
@@ -26,19 +30,27 @@ public class MultiArrayUtils {
       throw new IllegalArgumentException("'shape' and 'sourceOffset' do not have the same rank.");
     }
 
+    final int[] sourceShape = source.getShape();
+    final int[] targetShape = target.getShape();
+    for (int dimIdx = 0; dimIdx < shape.length; dimIdx++) {
+      if (sourceOffset[dimIdx] + shape[dimIdx] > sourceShape[dimIdx]) {
+        throw new IllegalArgumentException(
+            "'sourceOffset + shape' needs to be less or equal than " + "'source.getShape()'.");
+      }
+      if (targetOffset[dimIdx] + shape[dimIdx] > targetShape[dimIdx]) {
+        throw new IllegalArgumentException(
+            "'targetOffset + shape' needs to be less or equal than " + "'target.getShape()'.");
+      }
+    }
+
+    if (copyRegionStrided(source, sourceOffset, target, targetOffset, shape)) {
+      return;
+    }
+
     try {
       final ArrayList<Range> sourceRanges = new ArrayList<>();
       final ArrayList<Range> targetRanges = new ArrayList<>();
       for (int dimIdx = 0; dimIdx < shape.length; dimIdx++) {
-        if (sourceOffset[dimIdx] + shape[dimIdx] > source.getShape()[dimIdx]) {
-          throw new IllegalArgumentException(
-              "'sourceOffset + shape' needs to be less or equal than " + "'source.getShape()'.");
-        }
-        if (targetOffset[dimIdx] + shape[dimIdx] > target.getShape()[dimIdx]) {
-          throw new IllegalArgumentException(
-              "'targetOffset + shape' needs to be less or equal than " + "'target.getShape()'.");
-        }
-
         sourceRanges.add(new Range(sourceOffset[dimIdx], sourceOffset[dimIdx] + shape[dimIdx] - 1));
         targetRanges.add(new Range(targetOffset[dimIdx], targetOffset[dimIdx] + shape[dimIdx] - 1));
       }
@@ -55,7 +67,293 @@ public class MultiArrayUtils {
     }
   }
 
+  /**
+   * Copies the region directly between the backing storages of the arrays. The innermost
+   * dimensions are merged as long as they are contiguous in both arrays, and every contiguous run
+   * is copied with System.arraycopy. Returns false if the arrays are not backed by storages of the
+   * same type or if the innermost dimension is not contiguous, e.g. for transposed views. In that
+   * case nothing has been copied.
+   */
+  private static boolean copyRegionStrided(Array source, int[] sourceOffset, Array target,
+      int[] targetOffset, int[] shape) {
+    final Object sourceStorage = source.getStorage();
+    final Object targetStorage = target.getStorage();
+    if (sourceStorage == null || targetStorage == null || !sourceStorage.getClass().isArray()
+        || sourceStorage.getClass() != targetStorage.getClass()) {
+      return false;
+    }
+    final int ndim = shape.length;
+    for (int dimIdx = 0; dimIdx < ndim; dimIdx++) {
+      if (shape[dimIdx] == 0) {
+        return true;
+      }
+    }
+    final int[] sourceStrides = computeStrides(source);
+    final int[] targetStrides = computeStrides(target);
+    int sourcePosition = source.getIndex().set(sourceOffset).currentElement();
+    int targetPosition = target.getIndex().set(targetOffset).currentElement();
+
+    // Merge the innermost dimensions into one contiguous run.
+    int outerNdim = ndim;
+    int runLength = 1;
+    while (outerNdim > 0) {
+      final int dimIdx = outerNdim - 1;
+      if (shape[dimIdx] != 1 && (sourceStrides[dimIdx] != runLength
+          || targetStrides[dimIdx] != runLength)) {
+        break;
+      }
+      runLength *= shape[dimIdx];
+      outerNdim--;
+    }
+    if (runLength == 1 && ndim > 0 && shape[ndim - 1] != 1) {
+      return false;
+    }
+
+    final int[] counter = new int[outerNdim];
+    while (true) {
+      System.arraycopy(sourceStorage, sourcePosition, targetStorage, targetPosition, runLength);
+      int dimIdx = outerNdim - 1;
+      for (; dimIdx >= 0; dimIdx--) {
+        counter[dimIdx]++;
+        sourcePosition += sourceStrides[dimIdx];
+        targetPosition += targetStrides[dimIdx];
+        if (counter[dimIdx] < shape[dimIdx]) {
+          break;
+        }
+        sourcePosition -= sourceStrides[dimIdx] * shape[dimIdx];
+        targetPosition -= targetStrides[dimIdx] * shape[dimIdx];
+        counter[dimIdx] = 0;
+      }
+      if (dimIdx < 0) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Returns a copy of the array with the dimensions permuted by `order`, like
+   * `array.permute(order).copy()`. The copy has a contiguous backing storage that is written in a
+   * single pass. The source is read in tiles of two dimensions, so that both the reads and the
+   * writes stay within a few cache lines, regardless of the permutation.
+   *
+   * @param array
+   * @param order
+   */
+  public static Array transpose(@Nonnull Array array, @Nonnull int[] order) {
+    final Array view = array.permute(order);
+    final Object sourceStorage = array.getStorage();
+    if (sourceStorage == null || !(sourceStorage instanceof byte[] || sourceStorage instanceof short[]
+        || sourceStorage instanceof int[] || sourceStorage instanceof long[]
+        || sourceStorage instanceof float[] || sourceStorage instanceof double[])) {
+      return view.copy();
+    }
+    final int[] shape = view.getShape();
+    final int ndim = shape.length;
+    final Array target = Array.factory(array.getDataType(), shape);
+    if (target.getSize() == 0) {
+      return target;
+    }
+    if (ndim == 0) {
+      return view.copy();
+    }
+    final Object targetStorage = target.getStorage();
+    final int[] sourceStrides = computeStrides(view);
+    final int[] targetStrides = new int[ndim];
+    targetStrides[ndim - 1] = 1;
+    for (int dimIdx = ndim - 2; dimIdx >= 0; dimIdx--) {
+      targetStrides[dimIdx] = targetStrides[dimIdx + 1] * shape[dimIdx + 1];
+    }
+
+    // The innermost target dimension is written contiguously. The tile is spanned with the
+    // dimension that is read most contiguously from the source.
+    final int innerDim = ndim - 1;
+    int tileDim = -1;
+    for (int dimIdx = 0; dimIdx < innerDim; dimIdx++) {
+      if (shape[dimIdx] > 1 && (tileDim == -1
+          || Math.abs(sourceStrides[dimIdx]) < Math.abs(sourceStrides[tileDim]))) {
+        tileDim = dimIdx;
+      }
+    }
+    if (sourceStrides[innerDim] == 1 || shape[innerDim] == 1 || tileDim == -1
+        || Math.abs(sourceStrides[tileDim]) >= Math.abs(sourceStrides[innerDim])) {
+      // Reading along the innermost dimension is at least as contiguous, so no tiling is needed.
+      tileDim = -1;
+    }
+
+    final int[] outerDims = new int[ndim - (tileDim == -1 ? 1 : 2)];
+    for (int dimIdx = 0, i = 0; dimIdx < innerDim; dimIdx++) {
+      if (dimIdx != tileDim) {
+        outerDims[i++] = dimIdx;
+      }
+    }
+    final int tileLength = tileDim == -1 ? 1 : shape[tileDim];
+    final int tileSourceStride = tileDim == -1 ? 0 : sourceStrides[tileDim];
+    final int tileTargetStride = tileDim == -1 ? 0 : targetStrides[tileDim];
+
+    int sourcePosition = view.getIndex().set(new int[ndim]).currentElement();
+    int targetPosition = 0;
+    final int[] counter = new int[outerDims.length];
+    while (true) {
+      transposePlane(sourceStorage, sourcePosition, tileSourceStride, sourceStrides[innerDim],
+          targetStorage, targetPosition, tileTargetStride, tileLength, shape[innerDim]);
+      int i = outerDims.length - 1;
+      for (; i >= 0; i--) {
+        final int dimIdx = outerDims[i];
+        counter[i]++;
+        sourcePosition += sourceStrides[dimIdx];
+        targetPosition += targetStrides[dimIdx];
+        if (counter[i] < shape[dimIdx]) {
+          break;
+        }
+        sourcePosition -= sourceStrides[dimIdx] * shape[dimIdx];
+        targetPosition -= targetStrides[dimIdx] * shape[dimIdx];
+        counter[i] = 0;
+      }
+      if (i < 0) {
+        return target;
+      }
+    }
+  }
+
+  private static final int TRANSPOSE_TILE_LENGTH = 32;
+
+  /**
+   * Copies a plane of `lengthA` rows of `lengthB` elements. The elements of a row are written
+   * contiguously and read with a stride of `sourceStrideB`.
+   */
+  private static void transposePlane(Object source, int sourcePosition, int sourceStrideA,
+      int sourceStrideB, Object target, int targetPosition, int targetStrideA, int lengthA,
+      int lengthB) {
+    if (sourceStrideB == 1) {
+      for (int a = 0; a < lengthA; a++) {
+        System.arraycopy(source, sourcePosition + a * sourceStrideA, target,
+            targetPosition + a * targetStrideA, lengthB);
+      }
+      return;
+    }
+    for (int a0 = 0; a0 < lengthA; a0 += TRANSPOSE_TILE_LENGTH) {
+      final int a1 = Math.min(a0 + TRANSPOSE_TILE_LENGTH, lengthA);
+      for (int b0 = 0; b0 < lengthB; b0 += TRANSPOSE_TILE_LENGTH) {
+        final int b1 = Math.min(b0 + TRANSPOSE_TILE_LENGTH, lengthB);
+        if (source instanceof byte[]) {
+          transposeTile((byte[]) source, sourcePosition, sourceStrideA, sourceStrideB,
+              (byte[]) target, targetPosition, targetStrideA, a0, a1, b0, b1);
+        } else if (source instanceof short[]) {
+          transposeTile((short[]) source, sourcePosition, sourceStrideA, sourceStrideB,
+              (short[]) target, targetPosition, targetStrideA, a0, a1, b0, b1);
+        } else if (source instanceof int[]) {
+          transposeTile((int[]) source, sourcePosition, sourceStrideA, sourceStrideB,
+              (int[]) target, targetPosition, targetStrideA, a0, a1, b0, b1);
+        } else if (source instanceof long[]) {
+          transposeTile((long[]) source, sourcePosition, sourceStrideA, sourceStrideB,
+              (long[]) target, targetPosition, targetStrideA, a0, a1, b0, b1);
+        } else if (source instanceof float[]) {
+          transposeTile((float[]) source, sourcePosition, sourceStrideA, sourceStrideB,
+              (float[]) target, targetPosition, targetStrideA, a0, a1, b0, b1);
+        } else {
+          transposeTile((double[]) source, sourcePosition, sourceStrideA, sourceStrideB,
+              (double[]) target, targetPosition, targetStrideA, a0, a1, b0, b1);
+        }
+      }
+    }
+  }
+
+  private static void transposeTile(byte[] source, int sourcePosition, int sourceStrideA,
+      int sourceStrideB, byte[] target, int targetPosition, int targetStrideA, int a0, int a1,
+      int b0, int b1) {
+    for (int a = a0; a < a1; a++) {
+      int s = sourcePosition + a * sourceStrideA + b0 * sourceStrideB;
+      final int t = targetPosition + a * targetStrideA;
+      for (int b = b0; b < b1; b++, s += sourceStrideB) {
+        target[t + b] = source[s];
+      }
+    }
+  }
+
+  private static void transposeTile(short[] source, int sourcePosition, int sourceStrideA,
+      int sourceStrideB, short[] target, int targetPosition, int targetStrideA, int a0, int a1,
+      int b0, int b1) {
+    for (int a = a0; a < a1; a++) {
+      int s = sourcePosition + a * sourceStrideA + b0 * sourceStrideB;
+      final int t = targetPosition + a * targetStrideA;
+      for (int b = b0; b < b1; b++, s += sourceStrideB) {
+        target[t + b] = source[s];
+      }
+    }
+  }
+
+  private static void transposeTile(int[] source, int sourcePosition, int sourceStrideA,
+      int sourceStrideB, int[] target, int targetPosition, int targetStrideA, int a0, int a1,
+      int b0, int b1) {
+    for (int a = a0; a < a1; a++) {
+      int s = sourcePosition + a * sourceStrideA + b0 * sourceStrideB;
+      final int t = targetPosition + a * targetStrideA;
+      for (int b = b0; b < b1; b++, s += sourceStrideB) {
+        target[t + b] = source[s];
+      }
+    }
+  }
+
+  private static void transposeTile(long[] source, int sourcePosition, int sourceStrideA,
+      int sourceStrideB, long[] target, int targetPosition, int targetStrideA, int a0, int a1,
+      int b0, int b1) {
+    for (int a = a0; a < a1; a++) {
+      int s = sourcePosition + a * sourceStrideA + b0 * sourceStrideB;
+      final int t = targetPosition + a * targetStrideA;
+      for (int b = b0; b < b1; b++, s += sourceStrideB) {
+        target[t + b] = source[s];
+      }
+    }
+  }
+
+  private static void transposeTile(float[] source, int sourcePosition, int sourceStrideA,
+      int sourceStrideB, float[] target, int targetPosition, int targetStrideA, int a0, int a1,
+      int b0, int b1) {
+    for (int a = a0; a < a1; a++) {
+      int s = sourcePosition + a * sourceStrideA + b0 * sourceStrideB;
+      final int t = targetPosition + a * targetStrideA;
+      for (int b = b0; b < b1; b++, s += sourceStrideB) {
+        target[t + b] = source[s];
+      }
+    }
+  }
+
+  private static void transposeTile(double[] source, int sourcePosition, int sourceStrideA,
+      int sourceStrideB, double[] target, int targetPosition, int targetStrideA, int a0, int a1,
+      int b0, int b1) {
+    for (int a = a0; a < a1; a++) {
+      int s = sourcePosition + a * sourceStrideA + b0 * sourceStrideB;
+      final int t = targetPosition + a * targetStrideA;
+      for (int b = b0; b < b1; b++, s += sourceStrideB) {
+        target[t + b] = source[s];
+      }
+    }
+  }
+
+  /**
+   * Computes the element strides of the array in its backing storage. Dimensions of length 1 get
+   * a stride of 0, because they are never advanced.
+   */
+  private static int[] computeStrides(Array array) {
+    final int[] shape = array.getShape();
+    final int[] strides = new int[shape.length];
+    final int[] coords = new int[shape.length];
+    final Index index = array.getIndex();
+    final int origin = index.set(coords).currentElement();
+    for (int dimIdx = 0; dimIdx < shape.length; dimIdx++) {
+      if (shape[dimIdx] > 1) {
+        coords[dimIdx] = 1;
+        strides[dimIdx] = index.set(coords).currentElement() - origin;
+        coords[dimIdx] = 0;
+      }
+    }
+    return strides;
+  }
+
   public static Array fill(@Nonnull Array array, @Nonnull Object fillValue) {
+    if (isDense(array) && fillStorage(array.getStorage(), fillValue)) {
+      return array;
+    }
     IndexIterator iterator = array.getIndexIterator();
     final Class elementType = array.getElementType();
     final ValueAccessor accessor = createValueAccessor(elementType);
@@ -65,7 +363,40 @@ public class MultiArrayUtils {
     return array;
   }
 
+  /**
+   * Checks whether the value is the default value of its primitive type, i.e. the value that newly
+   * allocated arrays hold.
+   */
+  public static boolean isDefaultValue(Object value) {
+    if (value instanceof Double) {
+      return Double.doubleToRawLongBits((double) value) == 0;
+    }
+    if (value instanceof Float) {
+      return Float.floatToRawIntBits((float) value) == 0;
+    }
+    if (value instanceof Number) {
+      return ((Number) value).longValue() == 0;
+    }
+    if (value instanceof Boolean) {
+      return !(boolean) value;
+    }
+    return false;
+  }
+
+  /**
+   * Checks whether all values of the array are equal to the value. For floating point types, NaN
+   * values are considered equal to each other.
+   */
   public static boolean allValuesEqual(Array array, Object value) {
+    if (array.isConstant() && array.getSize() > 0) {
+      return createValueAccessor(array.getElementType()).isEqual(array.getIndexIterator(), value);
+    }
+    if (isDense(array)) {
+      final Boolean result = storageValuesEqual(array.getStorage(), value);
+      if (result != null) {
+        return result;
+      }
+    }
     IndexIterator iterator = array.getIndexIterator();
     final Class elementType = array.getElementType();
     final ValueAccessor accessor = createValueAccessor(elementType);
@@ -100,6 +431,195 @@ public class MultiArrayUtils {
     return true;
   }
 
+  /**
+   * Checks whether the elements of the array cover its backing storage exactly once, in any order.
+   * This holds for freshly allocated arrays as well as for their permuted or flipped views, but not
+   * for sections or constant arrays.
+   */
+  private static boolean isDense(Array array) {
+    final Object storage = array.getStorage();
+    if (storage == null || !storage.getClass().isArray()
+        || java.lang.reflect.Array.getLength(storage) != array.getSize()) {
+      return false;
+    }
+    final int[] shape = array.getShape();
+    final int[] strides = computeStrides(array);
+    final long[] sortedStrides = new long[shape.length];
+    for (int dimIdx = 0; dimIdx < shape.length; dimIdx++) {
+      // Pack the stride and the dimension to sort both by the absolute stride.
+      sortedStrides[dimIdx] = ((long) Math.abs(strides[dimIdx]) << 32) | dimIdx;
+    }
+    Arrays.sort(sortedStrides);
+    long expectedStride = 1;
+    for (long packedStride : sortedStrides) {
+      final int dimIdx = (int) packedStride;
+      if (shape[dimIdx] == 1) {
+        continue;
+      }
+      if ((packedStride >>> 32) != expectedStride) {
+        return false;
+      }
+      expectedStride *= shape[dimIdx];
+    }
+    return true;
+  }
+
+  private static boolean fillStorage(Object storage, Object value) {
+    if (storage instanceof double[]) {
+      Arrays.fill((double[]) storage, (double) value);
+    } else if (storage instanceof float[]) {
+      Arrays.fill((float[]) storage, (float) value);
+    } else if (storage instanceof long[]) {
+      Arrays.fill((long[]) storage, (long) value);
+    } else if (storage instanceof int[]) {
+      Arrays.fill((int[]) storage, (int) value);
+    } else if (storage instanceof short[]) {
+      Arrays.fill((short[]) storage, (short) value);
+    } else if (storage instanceof byte[]) {
+      Arrays.fill((byte[]) storage, (byte) value);
+    } else if (storage instanceof boolean[]) {
+      Arrays.fill((boolean[]) storage, (boolean) value);
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Compares all elements of a primitive storage array with the value. The integer types are
+   * compared in blocks without branches inside a block, so that the JIT can vectorize the loops.
+   * Returns null for storage types that are not handled here.
+   */
+  @Nullable
+  private static Boolean storageValuesEqual(Object storage, Object value) {
+    if (storage instanceof double[]) {
+      return allEqual((double[]) storage, (double) value);
+    } else if (storage instanceof float[]) {
+      return allEqual((float[]) storage, (float) value);
+    } else if (storage instanceof long[]) {
+      return allEqual((long[]) storage, (long) value);
+    } else if (storage instanceof int[]) {
+      return allEqual((int[]) storage, (int) value);
+    } else if (storage instanceof short[]) {
+      return allEqual((short[]) storage, (short) value);
+    } else if (storage instanceof byte[]) {
+      return allEqual((byte[]) storage, (byte) value);
+    } else if (storage instanceof boolean[]) {
+      return allEqual((boolean[]) storage, (boolean) value);
+    }
+    return null;
+  }
+
+  private static final int COMPARE_BLOCK_LENGTH = 256;
+
+  private static boolean allEqual(byte[] data, byte value) {
+    // Compare 8 bytes at a time through a long view of the array.
+    final ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.nativeOrder());
+    final long pattern = (value & 0xFFL) * 0x0101010101010101L;
+    final int wordsEnd = data.length & ~7;
+    for (int blockStart = 0; blockStart < wordsEnd; blockStart += 8 * COMPARE_BLOCK_LENGTH) {
+      final int blockEnd = Math.min(blockStart + 8 * COMPARE_BLOCK_LENGTH, wordsEnd);
+      long diff = 0;
+      for (int i = blockStart; i < blockEnd; i += 8) {
+        diff |= buffer.getLong(i) ^ pattern;
+      }
+      if (diff != 0) {
+        return false;
+      }
+    }
+    for (int i = wordsEnd; i < data.length; i++) {
+      if (data[i] != value) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean allEqual(short[] data, short value) {
+    for (int blockStart = 0; blockStart < data.length; blockStart += COMPARE_BLOCK_LENGTH) {
+      final int blockEnd = Math.min(blockStart + COMPARE_BLOCK_LENGTH, data.length);
+      int diff = 0;
+      for (int i = blockStart; i < blockEnd; i++) {
+        diff |= data[i] ^ value;
+      }
+      if (diff != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean allEqual(int[] data, int value) {
+    for (int blockStart = 0; blockStart < data.length; blockStart += COMPARE_BLOCK_LENGTH) {
+      final int blockEnd = Math.min(blockStart + COMPARE_BLOCK_LENGTH, data.length);
+      int diff = 0;
+      for (int i = blockStart; i < blockEnd; i++) {
+        diff |= data[i] ^ value;
+      }
+      if (diff != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean allEqual(long[] data, long value) {
+    for (int blockStart = 0; blockStart < data.length; blockStart += COMPARE_BLOCK_LENGTH) {
+      final int blockEnd = Math.min(blockStart + COMPARE_BLOCK_LENGTH, data.length);
+      long diff = 0;
+      for (int i = blockStart; i < blockEnd; i++) {
+        diff |= data[i] ^ value;
+      }
+      if (diff != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean allEqual(boolean[] data, boolean value) {
+    for (boolean element : data) {
+      if (element != value) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean allEqual(float[] data, float value) {
+    if (Float.isNaN(value)) {
+      for (float element : data) {
+        if (!Float.isNaN(element)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    for (float element : data) {
+      if (element != value) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean allEqual(double[] data, double value) {
+    if (Double.isNaN(value)) {
+      for (double element : data) {
+        if (!Double.isNaN(element)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    for (double element : data) {
+      if (element != value) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   static ValueAccessor createValueAccessor(Class elementType) {
     if (elementType == double.class) {
       return new ValueAccessor() {
@@ -115,12 +635,16 @@ public class MultiArrayUtils {
 
         @Override
         public boolean isEqual(IndexIterator iterator, Object value) {
-          return iterator.getDoubleNext() == (double) value;
+          final double element = iterator.getDoubleNext();
+          return element == (double) value || (Double.isNaN(element) && Double.isNaN((double) value));
         }
 
         @Override
         public boolean isEqual(IndexIterator sourceIterator, IndexIterator targetIterator) {
-          return targetIterator.getDoubleNext() == sourceIterator.getDoubleNext();
+          final double targetElement = targetIterator.getDoubleNext();
+          final double sourceElement = sourceIterator.getDoubleNext();
+          return targetElement == sourceElement
+              || (Double.isNaN(targetElement) && Double.isNaN(sourceElement));
         }
       };
     } else if (elementType == float.class) {
@@ -137,12 +661,16 @@ public class MultiArrayUtils {
 
         @Override
         public boolean isEqual(IndexIterator iterator, Object value) {
-          return iterator.getFloatNext() == (float) value;
+          final float element = iterator.getFloatNext();
+          return element == (float) value || (Float.isNaN(element) && Float.isNaN((float) value));
         }
 
         @Override
         public boolean isEqual(IndexIterator sourceIterator, IndexIterator targetIterator) {
-          return targetIterator.getFloatNext() == sourceIterator.getFloatNext();
+          final float targetElement = targetIterator.getFloatNext();
+          final float sourceElement = sourceIterator.getFloatNext();
+          return targetElement == sourceElement
+              || (Float.isNaN(targetElement) && Float.isNaN(sourceElement));
         }
       };
     } else if (elementType == long.class) {
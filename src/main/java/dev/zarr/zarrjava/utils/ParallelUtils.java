@@ -0,0 +1,239 @@
+package dev.zarr.zarrjava.utils;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+public class ParallelUtils {
+
+  public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+  public static final int DEFAULT_PREFETCH = 4;
+  public static final int DEFAULT_IO_THREADS = 16;
+
+  private static final class IoExecutorHolder {
+
+    static final ExecutorService IO_EXECUTOR = createIoExecutor();
+
+    private static ExecutorService createIoExecutor() {
+      final AtomicInteger threadCount = new AtomicInteger();
+      final ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_IO_THREADS,
+          DEFAULT_IO_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+        final Thread thread = new Thread(runnable, "zarr-io-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    }
+  }
+
+  /**
+   * Returns the executor on which the stores perform blocking I/O for their asynchronous methods,
+   * unless another executor is provided. It is separate from the common ForkJoinPool, so that slow
+   * requests do not starve parallel streams. It runs at most `DEFAULT_IO_THREADS` requests at the
+   * same time on daemon threads, which are stopped when they are idle.
+   */
+  @Nonnull
+  public static ExecutorService defaultIoExecutor() {
+    return IoExecutorHolder.IO_EXECUTOR;
+  }
+
+  /**
+   * Applies `task` to every item of `items`. If `executor` is null, the items are processed
+   * sequentially on the calling thread. Otherwise, the tasks are submitted to the executor while
+   * at most `maxInFlight` of them are pending or running at any time. Items are pulled lazily from
+   * the stream, so the number of items does not need to be known upfront. This method returns
+   * after all submitted tasks have finished. The first exception thrown by a task is rethrown on
+   * the calling thread and prevents further tasks from being started.
+   *
+   * @param items
+   * @param executor
+   * @param maxInFlight
+   * @param task
+   */
+  public static <T> void forEach(
+      @Nonnull Stream<T> items, @Nullable ExecutorService executor, int maxInFlight,
+      @Nonnull Consumer<T> task
+  ) {
+    if (executor == null) {
+      items.forEach(task);
+      return;
+    }
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("'maxInFlight' needs to be larger than 0.");
+    }
+
+    final Semaphore permits = new Semaphore(maxInFlight);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    try {
+      final Iterator<T> iterator = items.iterator();
+      while (iterator.hasNext() && failure.get() == null) {
+        final T item = iterator.next();
+        permits.acquire();
+        try {
+          executor.execute(() -> {
+            try {
+              if (failure.get() == null) {
+                task.accept(item);
+              }
+            } catch (Throwable t) {
+              failure.compareAndSet(null, t);
+            } finally {
+              permits.release();
+            }
+          });
+        } catch (RejectedExecutionException e) {
+          permits.release();
+          failure.compareAndSet(null, e);
+        }
+      }
+      // Acquiring all permits waits for the completion of every submitted task.
+      permits.acquire(maxInFlight);
+      permits.release(maxInFlight);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failure.compareAndSet(null, e);
+    }
+
+    final Throwable t = failure.get();
+    if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    }
+    if (t instanceof Error) {
+      throw (Error) t;
+    }
+    if (t != null) {
+      throw new RuntimeException(t);
+    }
+  }
+
+  /**
+   * Returns an iterator over the results of applying `task` to every item of `items`, in the order
+   * of the items. If `executor` is not null, up to `prefetch` items ahead of the consumer are
+   * processed concurrently on the executor, so that at most `prefetch` results are held in memory
+   * in addition to the one returned last. Otherwise, or if `prefetch` is 0, every item is processed
+   * on the calling thread when it is requested. Exceptions thrown by a task are rethrown by `next`.
+   * Closing the iterator cancels the tasks that have not been started yet.
+   *
+   * @param items
+   * @param executor
+   * @param prefetch
+   * @param task
+   */
+  @Nonnull
+  public static <T, R> PrefetchingIterator<T, R> mapPrefetching(
+      @Nonnull Iterator<T> items, @Nullable ExecutorService executor, int prefetch,
+      @Nonnull Function<T, R> task
+  ) {
+    if (prefetch < 0) {
+      throw new IllegalArgumentException("'prefetch' needs to be at least 0.");
+    }
+    return new PrefetchingIterator<>(items, executor == null ? 0 : prefetch, executor, task);
+  }
+
+  public static final class PrefetchingIterator<T, R> implements Iterator<R>, AutoCloseable {
+
+    @Nonnull
+    private final Iterator<T> items;
+    @Nonnull
+    private final Function<T, R> task;
+    private final int prefetch;
+    @Nullable
+    private final ExecutorService executor;
+    private final ArrayDeque<Future<R>> pending;
+
+    private PrefetchingIterator(@Nonnull Iterator<T> items, int prefetch,
+        @Nullable ExecutorService executor, @Nonnull Function<T, R> task) {
+      this.items = items;
+      this.task = task;
+      this.prefetch = prefetch;
+      this.executor = executor;
+      this.pending = new ArrayDeque<>(prefetch);
+    }
+
+    private void fill() {
+      while (pending.size() < prefetch && items.hasNext()) {
+        final T item = items.next();
+        final FutureTask<R> future = new FutureTask<>(() -> task.apply(item));
+        pending.addLast(future);
+        executor.execute(future);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !pending.isEmpty() || items.hasNext();
+    }
+
+    @Override
+    public R next() {
+      if (prefetch == 0) {
+        if (!items.hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return task.apply(items.next());
+      }
+      fill();
+      final Future<R> future = pending.pollFirst();
+      if (future == null) {
+        throw new NoSuchElementException();
+      }
+      // The next items are submitted before waiting, so that the executor stays busy while the
+      // consumer processes this result.
+      fill();
+      try {
+        return future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } catch (ExecutionException e) {
+        final Throwable t = e.getCause();
+        if (t instanceof RuntimeException) {
+          throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+          throw (Error) t;
+        }
+        throw new RuntimeException(t);
+      }
+    }
+
+    /**
+     * Returns a sequential stream over the remaining results, which closes this iterator when the
+     * stream is closed.
+     */
+    @Nonnull
+    public Stream<R> stream() {
+      return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+          Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+      Future<R> future;
+      while ((future = pending.pollFirst()) != null) {
+        // Running tasks are not interrupted, because interrupts close the channels of some stores.
+        future.cancel(false);
+      }
+    }
+  }
+}
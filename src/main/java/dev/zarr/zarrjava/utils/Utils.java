@@ -1,5 +1,6 @@
 package dev.zarr.zarrjava.utils;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -13,6 +14,10 @@ import java.util.stream.StreamSupport;
 
 public class Utils {
 
+  /**
+   * Allocates a heap buffer in native byte order. Off-heap memory is only used through
+   * BufferPool.acquireDirect or memory-mapped stores, where its lifetime is bounded.
+   */
   public static ByteBuffer allocateNative(int capacity) {
     return ByteBuffer.allocate(capacity)
         .order(ByteOrder.nativeOrder());
@@ -58,6 +63,51 @@ public class Utils {
     return bytes;
   }
 
+  /**
+   * Checks whether the remaining bytes of the buffer span its entire backing array, so that the
+   * array can be used in place of the buffer without copying.
+   */
+  public static boolean isWholeArray(ByteBuffer buffer) {
+    return buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+        && buffer.remaining() == buffer.array().length;
+  }
+
+  /**
+   * Returns an input stream over the remaining bytes of the buffer without copying them. The
+   * position of the buffer is not modified.
+   */
+  public static InputStream asInputStream(ByteBuffer buffer) {
+    if (buffer.hasArray()) {
+      return new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(),
+          buffer.remaining());
+    }
+    final ByteBuffer source = buffer.duplicate();
+    return new InputStream() {
+      @Override
+      public int read() {
+        return source.hasRemaining() ? source.get() & 0xFF : -1;
+      }
+
+      @Override
+      public int read(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+          return 0;
+        }
+        if (!source.hasRemaining()) {
+          return -1;
+        }
+        final int count = Math.min(length, source.remaining());
+        source.get(bytes, offset, count);
+        return count;
+      }
+
+      @Override
+      public int available() {
+        return source.remaining();
+      }
+    };
+  }
+
   public static <T> Stream<T> asStream(Iterator<T> sourceIterator) {
     Iterable<T> iterable = () -> sourceIterator;
     return StreamSupport.stream(iterable.spliterator(), false);
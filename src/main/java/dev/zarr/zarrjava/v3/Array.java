@@ -5,15 +5,20 @@ import dev.zarr.zarrjava.ZarrException;
 import dev.zarr.zarrjava.store.StoreHandle;
 import dev.zarr.zarrjava.utils.IndexingUtils;
 import dev.zarr.zarrjava.utils.MultiArrayUtils;
+import dev.zarr.zarrjava.utils.ParallelUtils;
 import dev.zarr.zarrjava.utils.Utils;
 import dev.zarr.zarrjava.v3.codec.CodecPipeline;
+import dev.zarr.zarrjava.v3.codec.core.ShardingIndexedCodec;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import ucar.ma2.InvalidRangeException;
@@ -22,6 +27,8 @@ public class Array extends Node {
 
   public ArrayMetadata metadata;
   CodecPipeline codecPipeline;
+  @Nullable
+  ChunkCache chunkCache;
 
   protected Array(StoreHandle storeHandle, ArrayMetadata arrayMetadata)
       throws IOException, ZarrException {
@@ -136,6 +143,24 @@ public class Array extends Node {
    */
   @Nonnull
   public ucar.ma2.Array read(final long[] offset, final int[] shape) throws ZarrException {
+    return read(offset, shape, null, ParallelUtils.DEFAULT_MAX_IN_FLIGHT);
+  }
+
+  /**
+   * Reads a part of the Zarr array based on a requested offset and shape into an ucar.ma2.Array.
+   * The chunks that intersect with the requested region are fetched and decoded concurrently on
+   * the provided executor, with at most `maxInFlight` chunks being processed at the same time. If
+   * `executor` is null, the chunks are processed sequentially on the calling thread.
+   *
+   * @param offset
+   * @param shape
+   * @param executor
+   * @param maxInFlight
+   * @throws ZarrException
+   */
+  @Nonnull
+  public ucar.ma2.Array read(final long[] offset, final int[] shape,
+      @Nullable ExecutorService executor, int maxInFlight) throws ZarrException {
     if (offset.length != metadata.ndim()) {
       throw new IllegalArgumentException("'offset' needs to have rank '" + metadata.ndim() + "'.");
     }
@@ -150,8 +175,13 @@ public class Array extends Node {
 
     final ucar.ma2.Array outputArray = ucar.ma2.Array.factory(metadata.dataType.getMA2DataType(),
         shape);
-    Arrays.stream(IndexingUtils.computeChunkCoords(metadata.shape, chunkShape, offset, shape))
-        .forEach(
+    // Regions of missing chunks are not copied below, so the output array starts out with the
+    // fill value.
+    if (!MultiArrayUtils.isDefaultValue(metadata.parsedFillValue)) {
+      MultiArrayUtils.fill(outputArray, metadata.parsedFillValue);
+    }
+    ParallelUtils.forEach(streamChunkCoords(chunkShape, offset, shape, executor), executor,
+        maxInFlight,
             chunkCoords -> {
               try {
                 final IndexingUtils.ChunkProjection chunkProjection =
@@ -159,26 +189,35 @@ public class Array extends Node {
                         shape
                     );
 
-                if (chunkIsInArray(chunkCoords)) {
-                  MultiArrayUtils.copyRegion(metadata.allocateFillValueChunk(),
-                      chunkProjection.chunkOffset, outputArray, chunkProjection.outOffset,
-                      chunkProjection.shape
-                  );
-                }
-
                 final String[] chunkKeys = metadata.chunkKeyEncoding.encodeChunkKey(chunkCoords);
                 final StoreHandle chunkHandle = storeHandle.resolve(chunkKeys);
 
-                if (codecPipeline.supportsPartialDecode()) {
-                  final ucar.ma2.Array chunkArray = codecPipeline.decodePartial(chunkHandle,
-                      Utils.toLongArray(chunkProjection.chunkOffset), chunkProjection.shape);
-                  MultiArrayUtils.copyRegion(chunkArray, new int[metadata.ndim()], outputArray,
-                      chunkProjection.outOffset, chunkProjection.shape
-                  );
+                if (codecPipeline.supportsPartialDecode() && !IndexingUtils.isFullChunk(
+                    chunkProjection.chunkOffset, chunkProjection.shape, chunkShape)) {
+                  // Partially decoded chunks are not put into the cache, because that would
+                  // require decoding the full chunk. Fully read chunks are served from it, though.
+                  final ucar.ma2.Array cachedChunkArray =
+                      chunkCache == null ? null : chunkCache.getIfPresent(cacheKey(), chunkCoords);
+                  if (cachedChunkArray != null) {
+                    if (cachedChunkArray != metadata.fillValueChunk()) {
+                      MultiArrayUtils.copyRegion(cachedChunkArray, chunkProjection.chunkOffset,
+                          outputArray, chunkProjection.outOffset, chunkProjection.shape
+                      );
+                    }
+                  } else {
+                    final ucar.ma2.Array chunkArray = codecPipeline.decodePartial(chunkHandle,
+                        Utils.toLongArray(chunkProjection.chunkOffset), chunkProjection.shape);
+                    MultiArrayUtils.copyRegion(chunkArray, new int[metadata.ndim()], outputArray,
+                        chunkProjection.outOffset, chunkProjection.shape
+                    );
+                  }
                 } else {
-                  MultiArrayUtils.copyRegion(readChunk(chunkCoords), chunkProjection.chunkOffset,
-                      outputArray, chunkProjection.outOffset, chunkProjection.shape
-                  );
+                  final ucar.ma2.Array chunkArray = readChunkInternal(chunkCoords);
+                  if (chunkArray != metadata.fillValueChunk()) {
+                    MultiArrayUtils.copyRegion(chunkArray, chunkProjection.chunkOffset,
+                        outputArray, chunkProjection.outOffset, chunkProjection.shape
+                    );
+                  }
                 }
 
               } catch (ZarrException e) {
@@ -188,6 +227,201 @@ public class Array extends Node {
     return outputArray;
   }
 
+  /**
+   * Streams the chunks that intersect with a region of the Zarr array in C order. In contrast to
+   * `read`, the region is never materialized as a whole, so it may be larger than the int-sized
+   * shapes of ucar.ma2.Array.
+   *
+   * @param offset
+   * @param shape
+   * @throws ZarrException
+   */
+  @Nonnull
+  public Stream<ChunkRegion> streamChunks(final long[] offset, final long[] shape)
+      throws ZarrException {
+    return streamChunks(offset, shape, IndexingUtils.TraversalOrder.C, null, 0);
+  }
+
+  /**
+   * Streams the chunks that intersect with a region of the Zarr array in the provided traversal
+   * order. Each element holds the part of the decoded chunk that lies within the region. The chunk
+   * coordinates are computed lazily. If `executor` is not null, the next `prefetch` chunks are
+   * fetched and decoded concurrently while the consumer processes the current one, so that at most
+   * `prefetch + 1` chunks are held by the stream at any time. The stream should be closed to cancel
+   * the prefetching of chunks that are not consumed.
+   *
+   * @param offset
+   * @param shape
+   * @param order
+   * @param executor
+   * @param prefetch
+   * @throws ZarrException
+   */
+  @Nonnull
+  public Stream<ChunkRegion> streamChunks(final long[] offset, final long[] shape,
+      @Nonnull IndexingUtils.TraversalOrder order, @Nullable ExecutorService executor,
+      int prefetch) throws ZarrException {
+    checkRegion(offset, shape);
+    final int[] chunkShape = metadata.chunkShape();
+    return ParallelUtils.mapPrefetching(
+        IndexingUtils.iterateChunkCoords(chunkShape, offset, shape, order), executor, prefetch,
+        chunkCoords -> {
+          try {
+            return readChunkRegion(chunkCoords, offset, shape);
+          } catch (ZarrException e) {
+            throw new RuntimeException(e);
+          }
+        }).stream();
+  }
+
+  /**
+   * Streams a region of the Zarr array in blocks of `blockShape` in C order. The blocks tile the
+   * region starting at its offset, so the blocks at the end of the region may be smaller.
+   *
+   * @param offset
+   * @param shape
+   * @param blockShape
+   * @throws ZarrException
+   */
+  @Nonnull
+  public Stream<Block> streamBlocks(final long[] offset, final long[] shape,
+      final int[] blockShape) throws ZarrException {
+    return streamBlocks(offset, shape, blockShape, IndexingUtils.TraversalOrder.C, null, 0);
+  }
+
+  /**
+   * Streams a region of the Zarr array in blocks of `blockShape` in the provided traversal order.
+   * The blocks tile the region starting at its offset, so the blocks at the end of the region may
+   * be smaller. If `executor` is not null, the next `prefetch` blocks are read concurrently while
+   * the consumer processes the current one.
+   *
+   * @param offset
+   * @param shape
+   * @param blockShape
+   * @param order
+   * @param executor
+   * @param prefetch
+   * @throws ZarrException
+   */
+  @Nonnull
+  public Stream<Block> streamBlocks(final long[] offset, final long[] shape,
+      final int[] blockShape, @Nonnull IndexingUtils.TraversalOrder order,
+      @Nullable ExecutorService executor, int prefetch) throws ZarrException {
+    checkRegion(offset, shape);
+    if (blockShape.length != metadata.ndim()) {
+      throw new IllegalArgumentException(
+          "'blockShape' needs to have rank '" + metadata.ndim() + "'.");
+    }
+    if (Arrays.stream(blockShape).anyMatch(size -> size < 1)) {
+      throw new IllegalArgumentException("'blockShape' needs to be larger than 0.");
+    }
+    return ParallelUtils.mapPrefetching(
+        IndexingUtils.iterateChunkCoords(blockShape, new long[metadata.ndim()], shape, order),
+        executor, prefetch,
+        blockCoords -> {
+          final long[] blockOffset = new long[metadata.ndim()];
+          final int[] regionShape = new int[metadata.ndim()];
+          for (int dimIdx = 0; dimIdx < metadata.ndim(); dimIdx++) {
+            final long blockStart = blockCoords[dimIdx] * blockShape[dimIdx];
+            blockOffset[dimIdx] = offset[dimIdx] + blockStart;
+            regionShape[dimIdx] = (int) Math.min(blockShape[dimIdx], shape[dimIdx] - blockStart);
+          }
+          try {
+            return new Block(blockCoords, blockOffset, read(blockOffset, regionShape));
+          } catch (ZarrException e) {
+            throw new RuntimeException(e);
+          }
+        }).stream();
+  }
+
+  private void checkRegion(final long[] offset, final long[] shape) throws ZarrException {
+    if (offset.length != metadata.ndim()) {
+      throw new IllegalArgumentException("'offset' needs to have rank '" + metadata.ndim() + "'.");
+    }
+    if (shape.length != metadata.ndim()) {
+      throw new IllegalArgumentException("'shape' needs to have rank '" + metadata.ndim() + "'.");
+    }
+    for (int dimIdx = 0; dimIdx < metadata.ndim(); dimIdx++) {
+      if (offset[dimIdx] < 0 || shape[dimIdx] < 0
+          || offset[dimIdx] + shape[dimIdx] > metadata.shape[dimIdx]) {
+        throw new ZarrException("Attempting to read data outside of the array's domain.");
+      }
+    }
+  }
+
+  /**
+   * Reads the part of a chunk that lies within the region of `offset` and `shape`.
+   */
+  @Nonnull
+  ChunkRegion readChunkRegion(final long[] chunkCoords, final long[] offset, final long[] shape)
+      throws ZarrException {
+    final int ndim = metadata.ndim();
+    final int[] chunkShape = metadata.chunkShape();
+    final int[] chunkOffset = new int[ndim];
+    final long[] outOffset = new long[ndim];
+    final int[] regionShape = new int[ndim];
+    for (int dimIdx = 0; dimIdx < ndim; dimIdx++) {
+      final long dimOffset = chunkCoords[dimIdx] * chunkShape[dimIdx];
+      final long dimLimit = Math.min(metadata.shape[dimIdx], dimOffset + chunkShape[dimIdx]);
+      final long start = Math.max(offset[dimIdx], dimOffset);
+      final long end = Math.min(offset[dimIdx] + shape[dimIdx], dimLimit);
+      chunkOffset[dimIdx] = (int) (start - dimOffset);
+      outOffset[dimIdx] = start - offset[dimIdx];
+      regionShape[dimIdx] = (int) (end - start);
+    }
+
+    final ucar.ma2.Array data;
+    if (codecPipeline.supportsPartialDecode()
+        && !IndexingUtils.isFullChunk(chunkOffset, regionShape, chunkShape)) {
+      final ucar.ma2.Array cachedChunkArray =
+          chunkCache == null ? null : chunkCache.getIfPresent(cacheKey(), chunkCoords);
+      if (cachedChunkArray != null) {
+        data = ucar.ma2.Array.factory(metadata.dataType.getMA2DataType(), regionShape);
+        if (!MultiArrayUtils.isDefaultValue(metadata.parsedFillValue)) {
+          MultiArrayUtils.fill(data, metadata.parsedFillValue);
+        }
+        if (cachedChunkArray != metadata.fillValueChunk()) {
+          MultiArrayUtils.copyRegion(cachedChunkArray, chunkOffset, data, new int[ndim],
+              regionShape);
+        }
+      } else {
+        final StoreHandle chunkHandle = storeHandle.resolve(
+            metadata.chunkKeyEncoding.encodeChunkKey(chunkCoords));
+        data = codecPipeline.decodePartial(chunkHandle, Utils.toLongArray(chunkOffset),
+            regionShape);
+      }
+    } else {
+      final ucar.ma2.Array chunkArray = readChunk(chunkCoords);
+      if (IndexingUtils.isFullChunk(chunkOffset, regionShape, chunkShape)) {
+        data = chunkArray;
+      } else {
+        try {
+          data = chunkArray.sectionNoReduce(chunkOffset, regionShape, null);
+        } catch (InvalidRangeException e) {
+          throw new ZarrException("Invalid region of chunk " + Arrays.toString(chunkCoords) + ".",
+              e);
+        }
+      }
+    }
+    return new ChunkRegion(chunkCoords, chunkOffset, outOffset, regionShape, data);
+  }
+
+  /**
+   * Streams the coordinates of the chunks that intersect with the selection in C order. Without an
+   * executor, the chunks are processed one after another on the calling thread, so that they can
+   * share one coordinates array. Otherwise, every chunk gets its own array, because it is processed
+   * concurrently.
+   */
+  private static Stream<long[]> streamChunkCoords(final int[] chunkShape, final long[] offset,
+      final int[] shape, @Nullable ExecutorService executor) {
+    final IndexingUtils.ChunkCoordsRange chunkCoordsRange = IndexingUtils.computeChunkCoordsRange(
+        chunkShape, offset, Utils.toLongArray(shape), IndexingUtils.TraversalOrder.C);
+    if (executor == null) {
+      return StreamSupport.stream(chunkCoordsRange.spliterator(), false);
+    }
+    return chunkCoordsRange.stream();
+  }
+
   boolean chunkIsInArray(long[] chunkCoords) {
     final int[] chunkShape = metadata.chunkShape();
     for (int dimIdx = 0; dimIdx < metadata.ndim(); dimIdx++) {
@@ -210,19 +444,55 @@ public class Array extends Node {
   @Nonnull
   public ucar.ma2.Array readChunk(long[] chunkCoords)
       throws ZarrException {
+    final ucar.ma2.Array chunkArray = readChunkInternal(chunkCoords);
+    if (chunkArray == metadata.fillValueChunk()) {
+      return metadata.allocateFillValueChunk();
+    }
+    if (chunkCache != null) {
+      // Protect the cached chunk from modifications by the caller.
+      return chunkArray.copy();
+    }
+    return chunkArray;
+  }
+
+  /**
+   * Reads one chunk through the chunk cache, if one is attached. The returned array may be shared
+   * with the cache and must not be modified.
+   */
+  @Nonnull
+  ucar.ma2.Array readChunkInternal(long[] chunkCoords) throws ZarrException {
     if (!chunkIsInArray(chunkCoords)) {
       throw new ZarrException("Attempting to read data outside of the array's domain.");
     }
 
+    long cacheGeneration = 0;
+    if (chunkCache != null) {
+      cacheGeneration = chunkCache.generation();
+      final ucar.ma2.Array cachedChunkArray = chunkCache.get(cacheKey(), chunkCoords);
+      if (cachedChunkArray != null) {
+        return cachedChunkArray;
+      }
+    }
+
     final String[] chunkKeys = metadata.chunkKeyEncoding.encodeChunkKey(chunkCoords);
     final StoreHandle chunkHandle = storeHandle.resolve(chunkKeys);
 
     ByteBuffer chunkBytes = chunkHandle.read();
+    final ucar.ma2.Array chunkArray;
+    final long chunkByteCount;
     if (chunkBytes == null) {
-      return metadata.allocateFillValueChunk();
+      // Missing chunks share a single constant array that only stores the fill value once.
+      chunkArray = metadata.fillValueChunk();
+      chunkByteCount = metadata.dataType.getByteCount();
+    } else {
+      chunkArray = codecPipeline.decode(chunkBytes);
+      chunkByteCount = chunkArray.getSize() * metadata.dataType.getByteCount();
     }
 
-    return codecPipeline.decode(chunkBytes);
+    if (chunkCache != null) {
+      chunkCache.put(cacheKey(), chunkCoords, chunkArray, chunkByteCount, cacheGeneration);
+    }
+    return chunkArray;
   }
 
   /**
@@ -243,6 +513,22 @@ public class Array extends Node {
    * @param array
    */
   public void write(long[] offset, ucar.ma2.Array array) {
+    write(offset, array, null, ParallelUtils.DEFAULT_MAX_IN_FLIGHT);
+  }
+
+  /**
+   * Writes a ucar.ma2.Array into the Zarr array at a specified offset. The shape of the Zarr array
+   * needs be large enough for the write. The affected chunks are encoded and stored concurrently on
+   * the provided executor, with at most `maxInFlight` chunks being processed at the same time. If
+   * `executor` is null, the chunks are processed sequentially on the calling thread.
+   *
+   * @param offset
+   * @param array
+   * @param executor
+   * @param maxInFlight
+   */
+  public void write(long[] offset, ucar.ma2.Array array, @Nullable ExecutorService executor,
+      int maxInFlight) {
     if (offset.length != metadata.ndim()) {
       throw new IllegalArgumentException("'offset' needs to have rank '" + metadata.ndim() + "'.");
     }
@@ -253,8 +539,8 @@ public class Array extends Node {
     int[] shape = array.getShape();
 
     final int[] chunkShape = metadata.chunkShape();
-    Arrays.stream(IndexingUtils.computeChunkCoords(metadata.shape, chunkShape, offset, shape))
-        .forEach(
+    ParallelUtils.forEach(streamChunkCoords(chunkShape, offset, shape, executor), executor,
+        maxInFlight,
             chunkCoords -> {
               try {
                 final IndexingUtils.ChunkProjection chunkProjection =
@@ -270,6 +556,12 @@ public class Array extends Node {
                       chunkProjection.shape,
                       null
                   );
+                } else if (codecPipeline.supportsPartialEncode()) {
+                  writeChunkPartial(chunkCoords,
+                      array.sectionNoReduce(chunkProjection.outOffset, chunkProjection.shape,
+                          null),
+                      Utils.toLongArray(chunkProjection.chunkOffset));
+                  return;
                 } else {
                   chunkArray = readChunk(chunkCoords);
                   MultiArrayUtils.copyRegion(array, chunkProjection.outOffset, chunkArray,
@@ -298,11 +590,74 @@ public class Array extends Node {
     if (MultiArrayUtils.allValuesEqual(chunkArray, metadata.parsedFillValue)) {
       chunkHandle.delete();
     } else {
-      ByteBuffer chunkBytes = codecPipeline.encode(chunkArray);
-      chunkHandle.set(chunkBytes);
+      codecPipeline.encodeTo(chunkArray, chunkHandle);
+    }
+    codecPipeline.invalidate(chunkHandle);
+    if (chunkCache != null) {
+      chunkCache.invalidate(cacheKey(), chunkCoords);
+    }
+  }
+
+  /**
+   * Writes a region into one chunk, while the rest of the chunk keeps its current content. Only
+   * applicable if the codecs support partial encoding, e.g. for sharded arrays, where only the
+   * affected inner chunks are re-encoded.
+   *
+   * @param chunkCoords
+   * @param regionArray
+   * @param chunkOffset
+   * @throws ZarrException
+   */
+  void writeChunkPartial(long[] chunkCoords, ucar.ma2.Array regionArray, long[] chunkOffset)
+      throws ZarrException {
+    String[] chunkKeys = metadata.chunkKeyEncoding.encodeChunkKey(chunkCoords);
+    StoreHandle chunkHandle = storeHandle.resolve(chunkKeys);
+
+    codecPipeline.partialEncode(chunkHandle, regionArray, chunkOffset);
+    codecPipeline.invalidate(chunkHandle);
+    if (chunkCache != null) {
+      chunkCache.invalidate(cacheKey(), chunkCoords);
     }
   }
 
+  /**
+   * Attaches a cache for decoded chunks to this array. Chunks that are read through this array are
+   * kept in the cache and invalidated when they are written or the array is resized. Passing null
+   * detaches the cache. For sharded arrays, only shards that are read as a whole are put into the
+   * cache; reads of a part of a shard decode just the inner chunks they need and bypass the cache
+   * unless the shard is already cached, and are not counted as misses.
+   *
+   * @param chunkCache
+   */
+  public Array withChunkCache(@Nullable ChunkCache chunkCache) {
+    this.chunkCache = chunkCache;
+    return this;
+  }
+
+  @Nullable
+  public ChunkCache getChunkCache() {
+    return chunkCache;
+  }
+
+  /**
+   * Enables the cache of decoded shard indexes for partial reads of sharded arrays, with the
+   * provided maximum size in bytes. A size of 0 disables it. The cache only notices shards that are
+   * written through this array. It must not be enabled if the shards may be modified by other
+   * Array instances or processes, because stale shard indexes lead to wrong data being read.
+   *
+   * @param maxSizeBytes
+   */
+  public Array withShardIndexCache(long maxSizeBytes) {
+    ArrayMetadata.getShardingIndexedCodec(metadata.codecs)
+        .ifPresent(codec -> ((ShardingIndexedCodec) codec).getShardIndexCache()
+            .setMaxSizeBytes(maxSizeBytes));
+    return this;
+  }
+
+  String cacheKey() {
+    return storeHandle.toString();
+  }
+
   public ArrayAccessor access() {
     return new ArrayAccessor(this);
   }
@@ -312,7 +667,7 @@ public class Array extends Node {
     ByteBuffer metadataBytes = ByteBuffer.wrap(objectMapper.writeValueAsBytes(newArrayMetadata));
     storeHandle.resolve(ZARR_JSON)
         .set(metadataBytes);
-    return new Array(storeHandle, newArrayMetadata);
+    return new Array(storeHandle, newArrayMetadata).withChunkCache(chunkCache);
   }
 
   /**
@@ -333,6 +688,9 @@ public class Array extends Node {
     ArrayMetadata newArrayMetadata = ArrayMetadataBuilder.fromArrayMetadata(metadata)
         .withShape(newShape)
         .build();
+    if (chunkCache != null) {
+      chunkCache.invalidate(cacheKey());
+    }
     return writeMetadata(newArrayMetadata);
   }
 
@@ -378,14 +736,67 @@ public class Array extends Node {
     );
   }
 
+  /**
+   * The part of a chunk that lies within a streamed region. `chunkOffset` is the offset of the part
+   * within the chunk, `outOffset` is its offset within the region and `data` holds its values.
+   */
+  public static final class ChunkRegion {
+
+    @Nonnull
+    public final long[] chunkCoords;
+    @Nonnull
+    public final int[] chunkOffset;
+    @Nonnull
+    public final long[] outOffset;
+    @Nonnull
+    public final int[] shape;
+    @Nonnull
+    public final ucar.ma2.Array data;
+
+    ChunkRegion(@Nonnull long[] chunkCoords, @Nonnull int[] chunkOffset,
+        @Nonnull long[] outOffset, @Nonnull int[] shape, @Nonnull ucar.ma2.Array data) {
+      this.chunkCoords = chunkCoords;
+      this.chunkOffset = chunkOffset;
+      this.outOffset = outOffset;
+      this.shape = shape;
+      this.data = data;
+    }
+  }
+
+  /**
+   * A block of a streamed region. `blockCoords` is the position of the block in the grid of blocks
+   * of the region and `offset` is the offset of the block within the array.
+   */
+  public static final class Block {
+
+    @Nonnull
+    public final long[] blockCoords;
+    @Nonnull
+    public final long[] offset;
+    @Nonnull
+    public final ucar.ma2.Array data;
+
+    Block(@Nonnull long[] blockCoords, @Nonnull long[] offset, @Nonnull ucar.ma2.Array data) {
+      this.blockCoords = blockCoords;
+      this.offset = offset;
+      this.data = data;
+    }
+  }
+
   public static final class ArrayAccessor {
 
     @Nullable
     long[] offset;
     @Nullable
-    int[] shape;
+    long[] shape;
     @Nonnull
     Array array;
+    @Nullable
+    ExecutorService executor;
+    int maxInFlight = ParallelUtils.DEFAULT_MAX_IN_FLIGHT;
+    @Nonnull
+    IndexingUtils.TraversalOrder order = IndexingUtils.TraversalOrder.C;
+    int prefetch = ParallelUtils.DEFAULT_PREFETCH;
 
     private ArrayAccessor(@Nonnull Array array) {
       this.array = array;
@@ -400,16 +811,95 @@ public class Array extends Node {
 
     @Nonnull
     public ArrayAccessor withShape(@Nonnull int... shape) {
-      this.shape = shape;
+      this.shape = Utils.toLongArray(shape);
       return this;
     }
 
+    /**
+     * Sets the shape of the region. Regions with more than `Integer.MAX_VALUE` elements along a
+     * dimension can be streamed with `streamChunks` and `streamBlocks`, but not read at once.
+     *
+     * @param shape
+     */
     @Nonnull
     public ArrayAccessor withShape(@Nonnull long... shape) {
-      this.shape = Utils.toIntArray(shape);
+      this.shape = shape;
+      return this;
+    }
+
+    /**
+     * Processes the chunks of subsequent reads and writes concurrently on the provided executor.
+     *
+     * @param executor
+     */
+    @Nonnull
+    public ArrayAccessor withExecutor(@Nullable ExecutorService executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    /**
+     * Limits the number of chunks that are processed concurrently when an executor is set.
+     *
+     * @param maxInFlight
+     */
+    @Nonnull
+    public ArrayAccessor withMaxInFlight(int maxInFlight) {
+      if (maxInFlight < 1) {
+        throw new IllegalArgumentException("'maxInFlight' needs to be larger than 0.");
+      }
+      this.maxInFlight = maxInFlight;
+      return this;
+    }
+
+    /**
+     * Sets the order in which chunks or blocks are streamed.
+     *
+     * @param order
+     */
+    @Nonnull
+    public ArrayAccessor withTraversalOrder(@Nonnull IndexingUtils.TraversalOrder order) {
+      this.order = order;
       return this;
     }
 
+    /**
+     * Sets the number of chunks or blocks that are read ahead of the consumer of a stream when an
+     * executor is set.
+     *
+     * @param prefetch
+     */
+    @Nonnull
+    public ArrayAccessor withPrefetch(int prefetch) {
+      if (prefetch < 0) {
+        throw new IllegalArgumentException("'prefetch' needs to be at least 0.");
+      }
+      this.prefetch = prefetch;
+      return this;
+    }
+
+    @Nonnull
+    public Stream<ChunkRegion> streamChunks() throws ZarrException {
+      if (offset == null) {
+        throw new ZarrException("`offset` needs to be set.");
+      }
+      if (shape == null) {
+        throw new ZarrException("`shape` needs to be set.");
+      }
+      return array.streamChunks(offset, shape, order, executor, prefetch);
+    }
+
+    @Nonnull
+    public Stream<Block> streamBlocks(@Nonnull int... blockShape) throws ZarrException {
+      if (offset == null) {
+        throw new ZarrException("`offset` needs to be set.");
+      }
+      if (shape == null) {
+        throw new ZarrException("`shape` needs to be set.");
+      }
+      return array.streamBlocks(offset, shape, blockShape, order, executor, prefetch);
+    }
+
     @Nonnull
     public ucar.ma2.Array read() throws ZarrException {
       if (offset == null) {
@@ -418,14 +908,17 @@ public class Array extends Node {
       if (shape == null) {
         throw new ZarrException("`shape` needs to be set.");
       }
-      return array.read(offset, shape);
+      if (Arrays.stream(shape).anyMatch(size -> size > Integer.MAX_VALUE)) {
+        throw new ZarrException("`shape` is too large to be read into a single array.");
+      }
+      return array.read(offset, Utils.toIntArray(shape), executor, maxInFlight);
     }
 
     public void write(@Nonnull ucar.ma2.Array content) throws ZarrException {
       if (offset == null) {
         throw new ZarrException("`offset` needs to be set.");
       }
-      array.write(offset, content);
+      array.write(offset, content, executor, maxInFlight);
     }
 
   }
@@ -249,6 +249,10 @@ public final class ArrayMetadata {
     return coreArrayMetadata.allocateFillValueChunk();
   }
 
+  public ucar.ma2.Array fillValueChunk() {
+    return coreArrayMetadata.fillValueChunk();
+  }
+
   public int ndim() {
     return shape.length;
   }
@@ -275,6 +279,7 @@ public final class ArrayMetadata {
     public final int[] chunkShape;
     public final DataType dataType;
     public final Object parsedFillValue;
+    private volatile ucar.ma2.Array fillValueChunk;
 
     public CoreArrayMetadata(long[] shape, int[] chunkShape, DataType dataType,
         Object parsedFillValue) {
@@ -299,9 +304,34 @@ public final class ArrayMetadata {
 
     public ucar.ma2.Array allocateFillValueChunk() {
       ucar.ma2.Array outputArray = ucar.ma2.Array.factory(dataType.getMA2DataType(), chunkShape);
-      MultiArrayUtils.fill(outputArray, parsedFillValue);
+      if (!MultiArrayUtils.isDefaultValue(parsedFillValue)) {
+        MultiArrayUtils.fill(outputArray, parsedFillValue);
+      }
       return outputArray;
     }
+
+    /**
+     * Returns a chunk that holds the fill value in every element without allocating the chunk's
+     * storage. The chunk is shared and must not be modified; use allocateFillValueChunk for a
+     * writable chunk.
+     */
+    public ucar.ma2.Array fillValueChunk() {
+      ucar.ma2.Array chunk = fillValueChunk;
+      if (chunk == null) {
+        synchronized (this) {
+          chunk = fillValueChunk;
+          if (chunk == null) {
+            final ucar.ma2.Array value = MultiArrayUtils.fill(
+                ucar.ma2.Array.factory(dataType.getMA2DataType(), new int[]{1}),
+                parsedFillValue);
+            chunk = ucar.ma2.Array.factoryConstant(dataType.getMA2DataType(), chunkShape,
+                value.getStorage());
+            fillValueChunk = chunk;
+          }
+        }
+      }
+      return chunk;
+    }
   }
 
 }
@@ -0,0 +1,189 @@
+package dev.zarr.zarrjava.v3;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A size-bounded cache of decoded chunks. The size is measured in bytes of the decoded chunk
+ * arrays. When the size exceeds the configured maximum, the least recently used chunks are
+ * evicted. A cache can be attached to a single Array or to a Group, in which case it is shared by
+ * all arrays that are opened or created through the group.
+ */
+public class ChunkCache {
+
+  private final long maxSizeBytes;
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long sizeBytes = 0;
+  private long generation = 0;
+  private long hitCount = 0;
+  private long missCount = 0;
+  private long evictionCount = 0;
+
+  public ChunkCache(long maxSizeBytes) {
+    if (maxSizeBytes < 0) {
+      throw new IllegalArgumentException("'maxSizeBytes' needs to be non-negative.");
+    }
+    this.maxSizeBytes = maxSizeBytes;
+  }
+
+  @Nullable
+  synchronized ucar.ma2.Array get(@Nonnull String arrayKey, @Nonnull long[] chunkCoords) {
+    Entry entry = entries.get(new Key(arrayKey, chunkCoords));
+    if (entry == null) {
+      missCount++;
+      return null;
+    }
+    hitCount++;
+    return entry.chunkArray;
+  }
+
+  /**
+   * Looks up a chunk like `get`, but does not count a miss if the chunk is not cached. Used by
+   * readers that do not put the chunks they decode into the cache.
+   */
+  @Nullable
+  synchronized ucar.ma2.Array getIfPresent(@Nonnull String arrayKey, @Nonnull long[] chunkCoords) {
+    Entry entry = entries.get(new Key(arrayKey, chunkCoords));
+    if (entry == null) {
+      return null;
+    }
+    hitCount++;
+    return entry.chunkArray;
+  }
+
+  /**
+   * Returns a counter that changes whenever entries are invalidated. Readers capture it before
+   * fetching a chunk from the store and pass it to `put`, so that chunks which were overwritten in
+   * the meantime do not end up in the cache.
+   */
+  synchronized long generation() {
+    return generation;
+  }
+
+  synchronized void put(
+      @Nonnull String arrayKey, @Nonnull long[] chunkCoords, @Nonnull ucar.ma2.Array chunkArray,
+      long byteLength, long expectedGeneration
+  ) {
+    if (expectedGeneration != generation || byteLength > maxSizeBytes) {
+      return;
+    }
+    Entry previousEntry = entries.put(new Key(arrayKey, chunkCoords.clone()),
+        new Entry(chunkArray, byteLength));
+    if (previousEntry != null) {
+      sizeBytes -= previousEntry.byteLength;
+    }
+    sizeBytes += byteLength;
+
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (sizeBytes > maxSizeBytes && iterator.hasNext()) {
+      sizeBytes -= iterator.next().byteLength;
+      iterator.remove();
+      evictionCount++;
+    }
+  }
+
+  synchronized void invalidate(@Nonnull String arrayKey, @Nonnull long[] chunkCoords) {
+    generation++;
+    Entry entry = entries.remove(new Key(arrayKey, chunkCoords));
+    if (entry != null) {
+      sizeBytes -= entry.byteLength;
+    }
+  }
+
+  synchronized void invalidate(@Nonnull String arrayKey) {
+    generation++;
+    Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Key, Entry> entry = iterator.next();
+      if (entry.getKey().arrayKey.equals(arrayKey)) {
+        sizeBytes -= entry.getValue().byteLength;
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Removes all chunks from the cache. The hit, miss and eviction counters are not reset.
+   */
+  public synchronized void clear() {
+    generation++;
+    entries.clear();
+    sizeBytes = 0;
+  }
+
+  public long getMaxSizeBytes() {
+    return maxSizeBytes;
+  }
+
+  public synchronized long getSizeBytes() {
+    return sizeBytes;
+  }
+
+  public synchronized int getEntryCount() {
+    return entries.size();
+  }
+
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format("<ChunkCache %d/%d bytes, %d entries, %d hits, %d misses, %d evictions>",
+        sizeBytes, maxSizeBytes, entries.size(), hitCount, missCount, evictionCount);
+  }
+
+  static final class Key {
+
+    @Nonnull
+    final String arrayKey;
+    @Nonnull
+    final long[] chunkCoords;
+
+    Key(@Nonnull String arrayKey, @Nonnull long[] chunkCoords) {
+      this.arrayKey = arrayKey;
+      this.chunkCoords = chunkCoords;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return arrayKey.equals(key.arrayKey) && Arrays.equals(chunkCoords, key.chunkCoords);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * arrayKey.hashCode() + Arrays.hashCode(chunkCoords);
+    }
+  }
+
+  static final class Entry {
+
+    @Nonnull
+    final ucar.ma2.Array chunkArray;
+    final long byteLength;
+
+    Entry(@Nonnull ucar.ma2.Array chunkArray, long byteLength) {
+      this.chunkArray = chunkArray;
+      this.byteLength = byteLength;
+    }
+  }
+}
@@ -16,6 +16,8 @@ import javax.annotation.Nullable;
 public class Group extends Node {
 
   public GroupMetadata metadata;
+  @Nullable
+  ChunkCache chunkCache;
 
   Group(@Nonnull StoreHandle storeHandle, @Nonnull GroupMetadata groupMetadata) throws IOException {
     super(storeHandle);
@@ -67,10 +69,12 @@ public class Group extends Node {
       switch (nodeType) {
         case ArrayMetadata.NODE_TYPE:
           return new Array(keyHandle,
-              objectMapper.readValue(metadataBytearray, ArrayMetadata.class));
+              objectMapper.readValue(metadataBytearray, ArrayMetadata.class))
+              .withChunkCache(chunkCache);
         case GroupMetadata.NODE_TYPE:
           return new Group(keyHandle,
-              objectMapper.readValue(metadataBytearray, GroupMetadata.class));
+              objectMapper.readValue(metadataBytearray, GroupMetadata.class))
+              .withChunkCache(chunkCache);
         default:
           throw new ZarrException("Unsupported node_type '" + nodeType + "' in " + keyHandle);
       }
@@ -81,27 +85,47 @@ public class Group extends Node {
 
   public Group createGroup(String key, GroupMetadata groupMetadata)
       throws IOException, ZarrException {
-    return Group.create(storeHandle.resolve(key), groupMetadata);
+    return Group.create(storeHandle.resolve(key), groupMetadata).withChunkCache(chunkCache);
   }
 
   public Group createGroup(String key, Map<String, Object> attributes)
       throws IOException, ZarrException {
-    return Group.create(storeHandle.resolve(key), new GroupMetadata(attributes));
+    return Group.create(storeHandle.resolve(key), new GroupMetadata(attributes))
+        .withChunkCache(chunkCache);
   }
 
   public Group createGroup(String key) throws IOException, ZarrException {
-    return Group.create(storeHandle.resolve(key), GroupMetadata.defaultValue());
+    return Group.create(storeHandle.resolve(key), GroupMetadata.defaultValue())
+        .withChunkCache(chunkCache);
   }
 
   public Array createArray(String key, ArrayMetadata arrayMetadata)
       throws IOException, ZarrException {
-    return Array.create(storeHandle.resolve(key), arrayMetadata);
+    return Array.create(storeHandle.resolve(key), arrayMetadata).withChunkCache(chunkCache);
   }
 
   public Array createArray(String key,
       Function<ArrayMetadataBuilder, ArrayMetadataBuilder> arrayMetadataBuilderMapper)
       throws IOException, ZarrException {
-    return Array.create(storeHandle.resolve(key), arrayMetadataBuilderMapper, false);
+    return Array.create(storeHandle.resolve(key), arrayMetadataBuilderMapper, false)
+        .withChunkCache(chunkCache);
+  }
+
+  /**
+   * Attaches a cache for decoded chunks to this group. The cache is shared by all arrays and
+   * subgroups that are subsequently opened or created through this group. Passing null detaches
+   * the cache.
+   *
+   * @param chunkCache
+   */
+  public Group withChunkCache(@Nullable ChunkCache chunkCache) {
+    this.chunkCache = chunkCache;
+    return this;
+  }
+
+  @Nullable
+  public ChunkCache getChunkCache() {
+    return chunkCache;
   }
 
   public Stream<Node> list() {
@@ -127,7 +151,7 @@ public class Group extends Node {
     ByteBuffer metadataBytes = ByteBuffer.wrap(objectMapper.writeValueAsBytes(newGroupMetadata));
     storeHandle.resolve(ZARR_JSON)
         .set(metadataBytes);
-    return new Group(storeHandle, newGroupMetadata);
+    return new Group(storeHandle, newGroupMetadata).withChunkCache(chunkCache);
   }
 
   public Group setAttributes(Map<String, Object> newAttributes) throws ZarrException, IOException {
@@ -2,6 +2,8 @@ package dev.zarr.zarrjava.v3.codec;
 
 import dev.zarr.zarrjava.ZarrException;
 import dev.zarr.zarrjava.store.StoreHandle;
+import dev.zarr.zarrjava.utils.MultiArrayUtils;
+import dev.zarr.zarrjava.utils.Utils;
 import java.nio.ByteBuffer;
 import ucar.ma2.Array;
 
@@ -21,6 +23,35 @@ public abstract class ArrayBytesCodec extends Codec {
     protected abstract Array decodePartial(
         StoreHandle handle, long[] offset, int[] shape
     ) throws ZarrException;
+
+    /**
+     * Encodes the array and writes the result to the provided handle. Codecs can override this to
+     * avoid holding the complete encoded value in memory.
+     */
+    protected void encodeTo(Array shardArray, StoreHandle handle) throws ZarrException {
+      handle.set(encode(shardArray));
+    }
+
+    /**
+     * Writes `array` into the region starting at `offset` of the chunk at the provided handle,
+     * while the rest of the chunk keeps its current content. This implementation decodes the whole
+     * chunk. Codecs can override it to only re-encode the affected parts.
+     */
+    protected void encodePartial(StoreHandle handle, Array array, long[] offset)
+        throws ZarrException {
+      final Array chunkArray = decodePartial(handle, new long[arrayMetadata.ndim()],
+          arrayMetadata.chunkShape);
+      MultiArrayUtils.copyRegion(array, new int[arrayMetadata.ndim()], chunkArray,
+          Utils.toIntArray(offset), array.getShape());
+      encodeTo(chunkArray, handle);
+    }
+
+    /**
+     * Discards any state that the codec keeps about the chunk at the provided handle, e.g. because
+     * the chunk was overwritten or deleted.
+     */
+    protected void invalidate(StoreHandle handle) {
+    }
   }
 }
 
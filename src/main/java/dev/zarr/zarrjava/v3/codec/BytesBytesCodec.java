@@ -10,4 +10,47 @@ public abstract class BytesBytesCodec extends Codec {
 
     public abstract ByteBuffer decode(ByteBuffer chunkBytes) throws ZarrException;
 
+    /**
+     * Returns the decoded size of the remaining bytes of `chunkBytes` if it can be determined
+     * without decoding, e.g. from a header. Otherwise, -1 is returned.
+     */
+    public long computeDecodedSize(ByteBuffer chunkBytes) throws ZarrException {
+        return -1;
+    }
+
+    /**
+     * Returns whether `encode` reads its input in place and returns a buffer that does not share
+     * memory with it. The pipeline then serializes chunks into pooled scratch memory for the codec,
+     * which it reuses as soon as `encode` returns.
+     */
+    public boolean supportsEncodeFromScratch() {
+        return false;
+    }
+
+    /**
+     * Returns whether `decodeInto` writes the decoded bytes directly into the output buffer. If
+     * not, `decodeInto` decodes into a new buffer and copies it, so `decode` should be preferred.
+     */
+    public boolean supportsDecodeInto() {
+        return false;
+    }
+
+    /**
+     * Decodes the remaining bytes of `chunkBytes` into `output`, starting at its position. The
+     * position of `output` is advanced by the number of decoded bytes, which is also returned. The
+     * position of `chunkBytes` is not modified.
+     *
+     * @param chunkBytes
+     * @param output
+     * @throws ZarrException if the data is corrupt or does not fit into the output buffer
+     */
+    public int decodeInto(ByteBuffer chunkBytes, ByteBuffer output) throws ZarrException {
+        final ByteBuffer decoded = decode(chunkBytes.duplicate());
+        final int decodedLength = decoded.remaining();
+        if (decodedLength > output.remaining()) {
+            throw new ZarrException("The decoded bytes do not fit into the output buffer.");
+        }
+        output.put(decoded);
+        return decodedLength;
+    }
 }
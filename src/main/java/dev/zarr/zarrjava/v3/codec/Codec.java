@@ -16,9 +16,21 @@ public abstract class Codec {
         return this.arrayMetadata;
     }
 
+    /**
+     * Returns the encoded size for an input of the provided size. Codecs whose encoded size depends
+     * on the data, e.g. compressors, return an upper bound and report `false` from
+     * `hasFixedEncodedSize`.
+     */
     protected abstract long computeEncodedSize(long inputByteLength, ArrayMetadata.CoreArrayMetadata arrayMetadata)
             throws ZarrException;
 
+    /**
+     * Returns whether `computeEncodedSize` is exact for every input.
+     */
+    protected boolean hasFixedEncodedSize() {
+        return true;
+    }
+
     public void setCoreArrayMetadata(ArrayMetadata.CoreArrayMetadata arrayMetadata) throws ZarrException{
         this.arrayMetadata = arrayMetadata;
     }
@@ -2,7 +2,9 @@ package dev.zarr.zarrjava.v3.codec;
 
 import dev.zarr.zarrjava.ZarrException;
 import dev.zarr.zarrjava.store.StoreHandle;
+import dev.zarr.zarrjava.utils.BufferPool;
 import dev.zarr.zarrjava.v3.ArrayMetadata.CoreArrayMetadata;
+import dev.zarr.zarrjava.v3.codec.core.BytesCodec;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import javax.annotation.Nonnull;
@@ -13,6 +15,16 @@ public class CodecPipeline {
   @Nonnull
   final Codec[] codecs;
   public final CoreArrayMetadata arrayMetadata;
+  // The codecs of each stage are determined once, so that chunks are coded without filtering the
+  // codecs again.
+  final ArrayArrayCodec[] arrayArrayCodecs;
+  final ArrayBytesCodec arrayBytesCodec;
+  final BytesBytesCodec[] bytesBytesCodecs;
+  // Decoded byte length of each BytesBytesCodec as known from the metadata, or -1 if it depends on
+  // the data.
+  final long[] decodedByteLengths;
+  // Whether the bytes codec serializes chunks into scratch memory for the first BytesBytesCodec.
+  final boolean encodesFromScratch;
 
   public CodecPipeline(@Nonnull Codec[] codecs, CoreArrayMetadata arrayMetadata) throws ZarrException {
     this.arrayMetadata = arrayMetadata;
@@ -53,32 +65,39 @@ public class CodecPipeline {
     }
 
     this.codecs = codecs;
-  }
-
-  ArrayArrayCodec[] getArrayArrayCodecs() {
-    return Arrays.stream(codecs)
+    this.arrayArrayCodecs = Arrays.stream(codecs)
         .filter(c -> c instanceof ArrayArrayCodec)
         .toArray(ArrayArrayCodec[]::new);
+    this.arrayBytesCodec = (ArrayBytesCodec) Arrays.stream(codecs)
+        .filter(c -> c instanceof ArrayBytesCodec)
+        .findFirst()
+        .get();
+    this.bytesBytesCodecs = Arrays.stream(codecs)
+        .filter(c -> c instanceof BytesBytesCodec)
+        .toArray(BytesBytesCodec[]::new);
+    this.decodedByteLengths = computeDecodedByteLengths();
+    this.encodesFromScratch = arrayBytesCodec instanceof BytesCodec
+        && bytesBytesCodecs.length > 0 && bytesBytesCodecs[0].supportsEncodeFromScratch();
   }
 
-  ArrayBytesCodec getArrayBytesCodec() {
-    for (Codec codec : codecs) {
-      if (codec instanceof ArrayBytesCodec) {
-        return (ArrayBytesCodec) codec;
+  private long[] computeDecodedByteLengths() throws ZarrException {
+    final long[] byteLengths = new long[bytesBytesCodecs.length];
+    long byteLength = arrayBytesCodec.hasFixedEncodedSize() ? arrayBytesCodec.computeEncodedSize(
+        arrayBytesCodec.arrayMetadata.chunkByteLength(), arrayBytesCodec.arrayMetadata) : -1;
+    for (int i = 0; i < bytesBytesCodecs.length; i++) {
+      byteLengths[i] = byteLength;
+      if (byteLength >= 0 && bytesBytesCodecs[i].hasFixedEncodedSize()) {
+        byteLength = bytesBytesCodecs[i].computeEncodedSize(byteLength,
+            bytesBytesCodecs[i].arrayMetadata);
+      } else {
+        byteLength = -1;
       }
     }
-    throw new RuntimeException(
-        "Unreachable because the existence of exactly 1 ArrayBytes codec is asserted upon construction.");
-  }
-
-  BytesBytesCodec[] getBytesBytesCodecs() {
-    return Arrays.stream(codecs)
-        .filter(c -> c instanceof BytesBytesCodec)
-        .toArray(BytesBytesCodec[]::new);
+    return byteLengths;
   }
 
   public boolean supportsPartialDecode() {
-    return codecs.length == 1 && codecs[0] instanceof ArrayBytesCodec.WithPartialDecode;
+    return codecs.length == 1 && arrayBytesCodec instanceof ArrayBytesCodec.WithPartialDecode;
   }
 
   @Nonnull
@@ -90,7 +109,7 @@ public class CodecPipeline {
       throw new ZarrException(
           "Partial decode is not supported for these codecs. " + Arrays.toString(codecs));
     }
-    Array chunkArray = ((ArrayBytesCodec.WithPartialDecode) getArrayBytesCodec()).decodePartial(
+    Array chunkArray = ((ArrayBytesCodec.WithPartialDecode) arrayBytesCodec).decodePartial(
         storeHandle, offset, shape);
     if (chunkArray == null) {
       throw new ZarrException("chunkArray is null. This is likely a bug in one of the codecs.");
@@ -98,6 +117,18 @@ public class CodecPipeline {
     return chunkArray;
   }
 
+  /**
+   * Notifies the codecs that the chunk at the provided handle was overwritten or deleted, so that
+   * any state they keep about it can be discarded.
+   *
+   * @param storeHandle
+   */
+  public void invalidate(@Nonnull StoreHandle storeHandle) {
+    if (supportsPartialDecode()) {
+      ((ArrayBytesCodec.WithPartialDecode) arrayBytesCodec).invalidate(storeHandle);
+    }
+  }
+
   @Nonnull
   public Array decode(
       @Nonnull ByteBuffer chunkBytes
@@ -106,23 +137,21 @@ public class CodecPipeline {
       throw new ZarrException("chunkBytes is null. Ohh nooo.");
     }
 
-    BytesBytesCodec[] bytesBytesCodecs = getBytesBytesCodecs();
     for (int i = bytesBytesCodecs.length - 1; i >= 0; --i) {
       BytesBytesCodec codec = bytesBytesCodecs[i];
-      chunkBytes = codec.decode(chunkBytes);
+      chunkBytes = decodeBytes(codec, chunkBytes, decodedByteLengths[i]);
     }
 
     if (chunkBytes == null) {
       throw new ZarrException(
           "chunkBytes is null. This is likely a bug in one of the codecs. " + Arrays.toString(
-              getBytesBytesCodecs()));
+              bytesBytesCodecs));
     }
-    Array chunkArray = getArrayBytesCodec().decode(chunkBytes);
+    Array chunkArray = arrayBytesCodec.decode(chunkBytes);
     if (chunkArray == null) {
       throw new ZarrException("chunkArray is null. This is likely a bug in one of the codecs.");
     }
 
-    ArrayArrayCodec[] arrayArrayCodecs = getArrayArrayCodecs();
     for (int i = arrayArrayCodecs.length - 1; i >= 0; --i) {
       ArrayArrayCodec codec = arrayArrayCodecs[i];
       chunkArray = codec.decode(chunkArray);
@@ -134,22 +163,93 @@ public class CodecPipeline {
     return chunkArray;
   }
 
+  /**
+   * Decodes the bytes with a BytesBytesCodec. If the decoded size is known from the metadata or
+   * the encoded bytes, the codec decodes into a buffer of the exact size, which the
+   * ArrayBytesCodec can use as backing storage of the chunk.
+   */
+  private static ByteBuffer decodeBytes(BytesBytesCodec codec, ByteBuffer chunkBytes,
+      long decodedByteLength) throws ZarrException {
+    if (!codec.supportsDecodeInto()) {
+      return codec.decode(chunkBytes);
+    }
+    if (decodedByteLength < 0) {
+      decodedByteLength = codec.computeDecodedSize(chunkBytes);
+    }
+    if (decodedByteLength < 0 || decodedByteLength > Integer.MAX_VALUE - 8) {
+      return codec.decode(chunkBytes);
+    }
+    final ByteBuffer output = ByteBuffer.allocate((int) decodedByteLength);
+    codec.decodeInto(chunkBytes, output);
+    if (output.hasRemaining()) {
+      throw new ZarrException(
+          "Expected " + decodedByteLength + " decoded bytes from " + codec.getClass() + ", got "
+              + output.position() + ".");
+    }
+    output.flip();
+    return output;
+  }
+
   @Nonnull
   public ByteBuffer encode(
       @Nonnull Array chunkArray
   ) throws ZarrException {
-    for (ArrayArrayCodec codec : getArrayArrayCodecs()) {
+    for (ArrayArrayCodec codec : arrayArrayCodecs) {
       chunkArray = codec.encode(chunkArray);
     }
 
-    ByteBuffer chunkBytes = getArrayBytesCodec().encode(chunkArray);
+    ByteBuffer chunkBytes;
+    int firstBytesBytesCodec = 0;
+    if (encodesFromScratch) {
+      // The bytes codec writes the chunk into pooled scratch memory, which the first compressor
+      // reads in place, so the serialized chunk is never allocated.
+      final BufferPool bufferPool = BufferPool.getDefault();
+      final ByteBuffer scratch = bufferPool.acquire(
+          Math.toIntExact(chunkArray.getSize() * chunkArray.getDataType().getSize()));
+      try {
+        ((BytesCodec) arrayBytesCodec).encodeInto(chunkArray, scratch);
+        scratch.flip();
+        chunkBytes = bytesBytesCodecs[0].encode(scratch);
+      } finally {
+        bufferPool.release(scratch);
+      }
+      firstBytesBytesCodec = 1;
+    } else {
+      chunkBytes = arrayBytesCodec.encode(chunkArray);
+    }
 
-    for (BytesBytesCodec codec : getBytesBytesCodecs()) {
-      chunkBytes = codec.encode(chunkBytes);
+    for (int i = firstBytesBytesCodec; i < bytesBytesCodecs.length; i++) {
+      chunkBytes = bytesBytesCodecs[i].encode(chunkBytes);
     }
     return chunkBytes;
   }
 
+  /**
+   * Encodes the chunk and writes it to the provided handle. Codecs that support partial decoding
+   * may stream the encoded bytes to the store instead of materializing them in memory.
+   *
+   * @param chunkArray
+   * @param storeHandle
+   */
+  public void encodeTo(
+      @Nonnull Array chunkArray, @Nonnull StoreHandle storeHandle
+  ) throws ZarrException {
+    if (supportsPartialDecode()) {
+      ((ArrayBytesCodec.WithPartialDecode) arrayBytesCodec).encodeTo(chunkArray,
+          storeHandle);
+    } else {
+      storeHandle.set(encode(chunkArray));
+    }
+  }
+
+  /**
+   * Returns whether the encoded size of every chunk is the one returned by `computeEncodedSize`.
+   * Otherwise, that size is an upper bound.
+   */
+  public boolean hasFixedEncodedSize() {
+    return Arrays.stream(codecs).allMatch(Codec::hasFixedEncodedSize);
+  }
+
   public long computeEncodedSize(long inputByteLength, CoreArrayMetadata arrayMetadata)
       throws ZarrException {
     for (Codec codec : codecs) {
@@ -158,17 +258,26 @@ public class CodecPipeline {
     return inputByteLength;
   }
 
-  public Array partialDecode(
-      StoreHandle valueHandle, long[] offset, int[] shape,
-      CoreArrayMetadata arrayMetadata
-  ) {
-    return null; // TODO
+  public boolean supportsPartialEncode() {
+    return supportsPartialDecode();
   }
 
-  public ByteBuffer partialEncode(
-      StoreHandle oldValueHandle, Array array, long[] offset, int[] shape,
-      CoreArrayMetadata arrayMetadata
-  ) {
-    return null; // TODO
+  /**
+   * Writes `array` into the region starting at `offset` of the chunk at the provided handle,
+   * while the rest of the chunk keeps its current content.
+   *
+   * @param storeHandle
+   * @param array
+   * @param offset
+   */
+  public void partialEncode(
+      @Nonnull StoreHandle storeHandle, @Nonnull Array array, long[] offset
+  ) throws ZarrException {
+    if (!supportsPartialEncode()) {
+      throw new ZarrException(
+          "Partial encode is not supported for these codecs. " + Arrays.toString(codecs));
+    }
+    ((ArrayBytesCodec.WithPartialDecode) arrayBytesCodec).encodePartial(storeHandle, array,
+        offset);
   }
 }
@@ -1,6 +1,7 @@
 package dev.zarr.zarrjava.v3.codec.core;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParseException;
@@ -18,13 +19,24 @@ import dev.zarr.zarrjava.v3.ArrayMetadata;
 import dev.zarr.zarrjava.v3.codec.BytesBytesCodec;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import javax.annotation.Nonnull;
 
 public class BloscCodec extends BytesBytesCodec {
 
+  // Size of the Blosc header, which is also the maximum overhead of compressing incompressible
+  // data.
+  private static final int BLOSC_MAX_OVERHEAD = 16;
+  // Blosc distributes the blocks of a chunk over its threads. Smaller chunks have too few blocks
+  // to make up for starting the threads, so they are always processed on a single thread.
+  public static final int MIN_MULTITHREADED_BYTE_LENGTH = 1024 * 1024;
+
+  private static volatile int defaultNumThreads = 1;
+
   public final String name = "blosc";
   @Nonnull
   public final Configuration configuration;
+  int numThreads = 0;
 
   @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
   public BloscCodec(
@@ -32,11 +44,63 @@ public class BloscCodec extends BytesBytesCodec {
     this.configuration = configuration;
   }
 
+  /**
+   * Sets the number of threads that Blosc uses for codecs without their own setting. The setting
+   * is not stored in the array metadata.
+   *
+   * @param numThreads
+   */
+  public static void setDefaultNumThreads(int numThreads) {
+    if (numThreads < 1) {
+      throw new IllegalArgumentException("'numThreads' needs to be larger than 0.");
+    }
+    defaultNumThreads = numThreads;
+  }
+
+  public static int getDefaultNumThreads() {
+    return defaultNumThreads;
+  }
+
+  /**
+   * Sets the number of threads that Blosc uses to compress and decompress chunks of at least
+   * `MIN_MULTITHREADED_BYTE_LENGTH` bytes with this codec. A value of 0 uses the default number of
+   * threads. The setting is not stored in the array metadata.
+   *
+   * @param numThreads
+   */
+  public void setNumThreads(int numThreads) {
+    if (numThreads < 0) {
+      throw new IllegalArgumentException("'numThreads' needs to be non-negative.");
+    }
+    this.numThreads = numThreads;
+  }
+
+  @JsonIgnore
+  public int getNumThreads() {
+    return numThreads == 0 ? defaultNumThreads : numThreads;
+  }
+
+  private int resolveNumThreads(long byteLength) {
+    return byteLength < MIN_MULTITHREADED_BYTE_LENGTH ? 1 : getNumThreads();
+  }
+
+  /**
+   * Returns the remaining bytes of the buffer as an array. The Blosc bindings only accept whole
+   * arrays, so the bytes are only copied if the buffer does not span its entire backing array.
+   */
+  private static byte[] remainingBytes(ByteBuffer buffer) {
+    if (Utils.isWholeArray(buffer)) {
+      return buffer.array();
+    }
+    return Utils.toArray(buffer.duplicate());
+  }
+
   @Override
   public ByteBuffer decode(ByteBuffer chunkBytes)
       throws ZarrException {
     try {
-      return ByteBuffer.wrap(Blosc.decompress(Utils.toArray(chunkBytes)));
+      return ByteBuffer.wrap(Blosc.decompress(remainingBytes(chunkBytes),
+          resolveNumThreads(computeDecodedSize(chunkBytes))));
     } catch (Exception ex) {
       throw new ZarrException("Error in decoding blosc.", ex);
     }
@@ -47,19 +111,37 @@ public class BloscCodec extends BytesBytesCodec {
       throws ZarrException {
     try {
       return ByteBuffer.wrap(
-          Blosc.compress(Utils.toArray(chunkBytes), configuration.typesize, configuration.cname,
+          Blosc.compress(remainingBytes(chunkBytes), configuration.typesize, configuration.cname,
               configuration.clevel,
-              configuration.shuffle, configuration.blocksize
+              configuration.shuffle, configuration.blocksize,
+              resolveNumThreads(chunkBytes.remaining())
           ));
     } catch (Exception ex) {
       throw new ZarrException("Error in encoding blosc.", ex);
     }
   }
 
+  /**
+   * Returns the uncompressed size that is recorded in the Blosc header.
+   */
+  @Override
+  public long computeDecodedSize(ByteBuffer chunkBytes) {
+    if (chunkBytes.remaining() < BLOSC_MAX_OVERHEAD) {
+      return -1;
+    }
+    return chunkBytes.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+        .getInt(chunkBytes.position() + 4) & 0xFFFFFFFFL;
+  }
+
   @Override
   public long computeEncodedSize(long inputByteLength,
-      ArrayMetadata.CoreArrayMetadata arrayMetadata) throws ZarrException {
-    throw new ZarrException("Not implemented for Blosc codec.");
+      ArrayMetadata.CoreArrayMetadata arrayMetadata) {
+    return inputByteLength + BLOSC_MAX_OVERHEAD;
+  }
+
+  @Override
+  protected boolean hasFixedEncodedSize() {
+    return false;
   }
 
   public static final class CustomShuffleSerializer extends StdSerializer<Blosc.Shuffle> {
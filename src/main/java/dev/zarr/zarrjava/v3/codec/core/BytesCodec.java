@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonValue;
 import dev.zarr.zarrjava.ZarrException;
+import dev.zarr.zarrjava.utils.Utils;
 import dev.zarr.zarrjava.v3.ArrayMetadata;
 import dev.zarr.zarrjava.v3.codec.ArrayBytesCodec;
 import java.nio.ByteBuffer;
@@ -29,15 +30,140 @@ public class BytesCodec extends ArrayBytesCodec {
   }
 
   @Override
-  public Array decode(ByteBuffer chunkBytes) {
-    chunkBytes.order(configuration.endian.getByteOrder());
-    return Array.factory(arrayMetadata.dataType.getMA2DataType(), arrayMetadata.chunkShape,
-        chunkBytes);
+  public Array decode(ByteBuffer chunkBytes) throws ZarrException {
+    final ucar.ma2.DataType dataType = arrayMetadata.dataType.getMA2DataType();
+    final int[] shape = arrayMetadata.chunkShape;
+    if (chunkBytes.remaining() != arrayMetadata.chunkByteLength()) {
+      throw new ZarrException(
+          "Expected " + arrayMetadata.chunkByteLength() + " bytes for the chunk, got "
+              + chunkBytes.remaining() + ".");
+    }
+    final ByteBuffer bytes = chunkBytes.duplicate().order(configuration.endian.getByteOrder());
+    final int size = arrayMetadata.chunkSize();
+    // The typed views copy in bulk and only swap bytes if the order differs from the native one.
+    switch (dataType) {
+      case BYTE:
+      case UBYTE:
+        if (Utils.isWholeArray(chunkBytes)) {
+          return Array.factory(dataType, shape, chunkBytes.array());
+        }
+        return Array.factory(dataType, shape, Utils.toArray(bytes));
+      case SHORT:
+      case USHORT:
+        final short[] shorts = new short[size];
+        bytes.asShortBuffer().get(shorts);
+        return Array.factory(dataType, shape, shorts);
+      case INT:
+      case UINT:
+        final int[] ints = new int[size];
+        bytes.asIntBuffer().get(ints);
+        return Array.factory(dataType, shape, ints);
+      case LONG:
+      case ULONG:
+        final long[] longs = new long[size];
+        bytes.asLongBuffer().get(longs);
+        return Array.factory(dataType, shape, longs);
+      case FLOAT:
+        final float[] floats = new float[size];
+        bytes.asFloatBuffer().get(floats);
+        return Array.factory(dataType, shape, floats);
+      case DOUBLE:
+        final double[] doubles = new double[size];
+        bytes.asDoubleBuffer().get(doubles);
+        return Array.factory(dataType, shape, doubles);
+      default:
+        return Array.factory(dataType, shape, bytes);
+    }
   }
 
   @Override
   public ByteBuffer encode(Array chunkArray) {
-    return chunkArray.getDataAsByteBuffer(configuration.endian.getByteOrder());
+    final ByteOrder byteOrder = configuration.endian.getByteOrder();
+    final Object data = elements(chunkArray);
+    if (data instanceof byte[]) {
+      // A copy of the elements can be handed out, but not the storage of the array.
+      final byte[] bytes = (byte[]) data;
+      return ByteBuffer.wrap(data == chunkArray.getStorage() ? bytes.clone() : bytes);
+    }
+    final int elementSize = typedElementSize(data);
+    if (elementSize < 0) {
+      return chunkArray.getDataAsByteBuffer(byteOrder);
+    }
+    final ByteBuffer bytes = ByteBuffer.allocate(
+        java.lang.reflect.Array.getLength(data) * elementSize).order(byteOrder);
+    putElements(data, bytes);
+    return bytes;
+  }
+
+  /**
+   * Writes the encoded chunk into `output`, starting at its position, without allocating an
+   * intermediate buffer. The position of `output` is advanced by the number of written bytes,
+   * which is also returned.
+   *
+   * @param chunkArray
+   * @param output
+   * @throws ZarrException if the encoded chunk does not fit into the output buffer
+   */
+  public int encodeInto(Array chunkArray, ByteBuffer output) throws ZarrException {
+    final ByteOrder byteOrder = configuration.endian.getByteOrder();
+    final Object data = elements(chunkArray);
+    final int elementSize = data instanceof byte[] ? 1 : typedElementSize(data);
+    final ByteBuffer bytes = elementSize < 0 ? chunkArray.getDataAsByteBuffer(byteOrder) : null;
+    final long byteLength = bytes != null ? bytes.remaining()
+        : (long) java.lang.reflect.Array.getLength(data) * elementSize;
+    if (byteLength > output.remaining()) {
+      throw new ZarrException("The encoded chunk does not fit into the output buffer.");
+    }
+    if (bytes != null) {
+      output.put(bytes);
+    } else if (data instanceof byte[]) {
+      output.put((byte[]) data);
+    } else {
+      putElements(data, output.duplicate().order(byteOrder));
+      output.position(output.position() + (int) byteLength);
+    }
+    return (int) byteLength;
+  }
+
+  private static Object elements(Array chunkArray) {
+    final Object data = chunkArray.get1DJavaArray(chunkArray.getDataType());
+    if (java.lang.reflect.Array.getLength(data) != chunkArray.getSize()) {
+      return chunkArray.copyTo1DJavaArray();
+    }
+    return data;
+  }
+
+  /**
+   * Returns the byte size of the elements of the primitive arrays that are written with typed
+   * views, or -1 for other storage.
+   */
+  private static int typedElementSize(Object data) {
+    if (data instanceof short[]) {
+      return 2;
+    } else if (data instanceof int[] || data instanceof float[]) {
+      return 4;
+    } else if (data instanceof long[] || data instanceof double[]) {
+      return 8;
+    }
+    return -1;
+  }
+
+  /**
+   * Writes the elements starting at the position of `bytes` in its byte order. The position of
+   * `bytes` is not modified.
+   */
+  private static void putElements(Object data, ByteBuffer bytes) {
+    if (data instanceof short[]) {
+      bytes.asShortBuffer().put((short[]) data);
+    } else if (data instanceof int[]) {
+      bytes.asIntBuffer().put((int[]) data);
+    } else if (data instanceof long[]) {
+      bytes.asLongBuffer().put((long[]) data);
+    } else if (data instanceof float[]) {
+      bytes.asFloatBuffer().put((float[]) data);
+    } else if (data instanceof double[]) {
+      bytes.asDoubleBuffer().put((double[]) data);
+    }
   }
 
   @Override
@@ -19,17 +19,18 @@ public class Crc32cCodec extends BytesBytesCodec {
   @Override
   public ByteBuffer decode(ByteBuffer chunkBytes)
       throws ZarrException {
-    ByteBuffer buffer = chunkBytes.slice();
-    buffer.order(ByteOrder.LITTLE_ENDIAN);
-
+    if (chunkBytes.remaining() < 4) {
+      throw new ZarrException("The chunk is too short to contain a crc32c checksum.");
+    }
+    final ByteBuffer buffer = chunkBytes.slice();
     buffer.limit(buffer.capacity() - 4);
+    final ByteBuffer payload = buffer.slice();
 
     final CRC32C crc32c = new CRC32C();
     crc32c.update(buffer);
     int computedCrc32c = (int) crc32c.getValue();
-
-    buffer.limit(buffer.capacity());
-    int storedCrc32c = buffer.getInt();
+    int storedCrc32c = chunkBytes.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+        .getInt(chunkBytes.limit() - 4);
 
     if (computedCrc32c != storedCrc32c) {
       throw new ZarrException(
@@ -37,18 +38,25 @@ public class Crc32cCodec extends BytesBytesCodec {
               + "Computed: " +
               computedCrc32c);
     }
-    buffer.rewind();
-    buffer.limit(buffer.capacity() - 4);
-    return buffer.slice();
+    return payload;
+  }
+
+  @Override
+  public long computeDecodedSize(ByteBuffer chunkBytes) {
+    return chunkBytes.remaining() < 4 ? -1 : chunkBytes.remaining() - 4;
+  }
+
+  @Override
+  public boolean supportsEncodeFromScratch() {
+    return true;
   }
 
   @Override
   public ByteBuffer encode(ByteBuffer chunkBytes) {
-    return Utils.makeByteBuffer(chunkBytes.capacity() + 4, b -> {
+    return Utils.makeByteBuffer(chunkBytes.remaining() + 4, b -> {
       final CRC32C crc32c = new CRC32C();
-      crc32c.update(chunkBytes);
+      crc32c.update(chunkBytes.duplicate());
       int computedCrc32c = (int) crc32c.getValue();
-      chunkBytes.rewind();
       b.put(chunkBytes);
       b.putInt(computedCrc32c);
       return b;
@@ -3,21 +3,35 @@ package dev.zarr.zarrjava.v3.codec.core;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import dev.zarr.zarrjava.ZarrException;
-import dev.zarr.zarrjava.utils.Utils;
+import dev.zarr.zarrjava.utils.BufferPool;
 import dev.zarr.zarrjava.v3.ArrayMetadata;
 import dev.zarr.zarrjava.v3.codec.BytesBytesCodec;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 import javax.annotation.Nonnull;
 
 public class GzipCodec extends BytesBytesCodec {
 
+  // The same header as written by GZIPOutputStream: magic, deflate method, no flags and no mtime.
+  private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0,
+      0, 0};
+  private static final int GZIP_TRAILER_LENGTH = 8;
+  private static final int FHCRC = 2;
+  private static final int FEXTRA = 4;
+  private static final int FNAME = 8;
+  private static final int FCOMMENT = 16;
+
+  // Deflater and Inflater hold native state, which is reused per thread instead of being set up
+  // for every chunk.
+  private static final ThreadLocal<Deflater> DEFLATER =
+      ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+  private static final ThreadLocal<Inflater> INFLATER =
+      ThreadLocal.withInitial(() -> new Inflater(true));
+
   public final String name = "gzip";
   @Nonnull
   public final Configuration configuration;
@@ -28,44 +42,239 @@ public class GzipCodec extends BytesBytesCodec {
     this.configuration = configuration;
   }
 
-  private void copy(InputStream inputStream, OutputStream outputStream) throws IOException {
-    byte[] buffer = new byte[4096];
-    int len;
-    while ((len = inputStream.read(buffer)) > 0) {
-      outputStream.write(buffer, 0, len);
-    }
-  }
-
   @Override
   public ByteBuffer decode(ByteBuffer chunkBytes)
       throws ZarrException {
-    try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream(); GZIPInputStream inputStream = new GZIPInputStream(
-        new ByteArrayInputStream(Utils.toArray(chunkBytes)))) {
-      copy(inputStream, outputStream);
-      inputStream.close();
-      return ByteBuffer.wrap(outputStream.toByteArray());
-    } catch (IOException ex) {
+    // The decoded size is usually known from the array metadata, so that the data can be
+    // inflated into an output of the right size without copying.
+    final byte[] output = new byte[arrayMetadata == null ? Math.max(4 * chunkBytes.remaining(),
+        1024) : Math.max(arrayMetadata.chunkByteLength(), 1)];
+    return inflate(chunkBytes, output, 0, output.length, true);
+  }
+
+  @Override
+  public boolean supportsDecodeInto() {
+    return true;
+  }
+
+  @Override
+  public int decodeInto(ByteBuffer chunkBytes, ByteBuffer output) throws ZarrException {
+    if (!output.hasArray()) {
+      return super.decodeInto(chunkBytes, output);
+    }
+    final ByteBuffer decoded = inflate(chunkBytes, output.array(),
+        output.arrayOffset() + output.position(), output.arrayOffset() + output.limit(), false);
+    output.position(output.position() + decoded.remaining());
+    return decoded.remaining();
+  }
+
+  /**
+   * Inflates the gzip members in the remaining bytes of `chunkBytes` into `output` between
+   * `outputOffset` and `outputEnd`, and returns a buffer of the decoded bytes. If `growable` is
+   * set, the output is replaced with a larger array when it is full. Otherwise, a ZarrException is
+   * thrown.
+   */
+  private static ByteBuffer inflate(ByteBuffer chunkBytes, byte[] output, int outputOffset,
+      int outputEnd, boolean growable) throws ZarrException {
+    final BufferPool bufferPool = BufferPool.getDefault();
+    ByteBuffer scratch = null;
+    try {
+      final byte[] input;
+      final int inputOffset;
+      if (chunkBytes.hasArray()) {
+        input = chunkBytes.array();
+        inputOffset = chunkBytes.arrayOffset() + chunkBytes.position();
+      } else {
+        scratch = bufferPool.acquire(chunkBytes.remaining());
+        scratch.put(chunkBytes.duplicate());
+        input = scratch.array();
+        inputOffset = 0;
+      }
+      final int inputEnd = inputOffset + chunkBytes.remaining();
+
+      int outputLength = outputOffset;
+      int memberOffset = inputOffset;
+      do {
+        final int memberStart = outputLength;
+        final int dataOffset = skipHeader(input, memberOffset, inputEnd);
+        final Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(input, dataOffset, inputEnd - dataOffset);
+        while (!inflater.finished()) {
+          if (outputLength == outputEnd) {
+            if (!growable) {
+              // The end of the stream may only be detected by another call after the output
+              // was filled exactly.
+              if (inflater.inflate(new byte[1]) != 0) {
+                throw new ZarrException("The decoded bytes do not fit into the output buffer.");
+              }
+              if (!inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                throw new ZarrException("Error in decoding gzip: Unexpected end of data.");
+              }
+              continue;
+            }
+            output = Arrays.copyOf(output, (int) Math.min(2L * output.length,
+                Integer.MAX_VALUE - 8));
+            outputEnd = output.length;
+          }
+          final int inflatedLength = inflater.inflate(output, outputLength,
+              outputEnd - outputLength);
+          outputLength += inflatedLength;
+          if (inflatedLength == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+            throw new ZarrException("Error in decoding gzip: Unexpected end of data.");
+          }
+        }
+        final int trailerOffset = inputEnd - inflater.getRemaining();
+        if (inputEnd - trailerOffset < GZIP_TRAILER_LENGTH) {
+          throw new ZarrException("Error in decoding gzip: Missing trailer.");
+        }
+        final CRC32 crc32 = new CRC32();
+        crc32.update(output, memberStart, outputLength - memberStart);
+        if (readIntLE(input, trailerOffset) != (int) crc32.getValue()
+            || readIntLE(input, trailerOffset + 4) != outputLength - memberStart) {
+          throw new ZarrException("Error in decoding gzip: Corrupt trailer.");
+        }
+        memberOffset = trailerOffset + GZIP_TRAILER_LENGTH;
+        // Concatenated members are decoded into the same output, as done by GZIPInputStream.
+      } while (inputEnd - memberOffset >= GZIP_HEADER.length
+          && (input[memberOffset] & 0xFF) == 0x1f && (input[memberOffset + 1] & 0xFF) == 0x8b);
+
+      if (outputOffset == 0 && outputLength == output.length) {
+        return ByteBuffer.wrap(output);
+      }
+      return growable ? ByteBuffer.wrap(Arrays.copyOfRange(output, outputOffset, outputLength))
+          : ByteBuffer.wrap(output, outputOffset, outputLength - outputOffset);
+    } catch (DataFormatException ex) {
       throw new ZarrException("Error in decoding gzip.", ex);
+    } finally {
+      bufferPool.release(scratch);
     }
   }
 
+  /**
+   * Validates the gzip header at the offset and returns the offset of the deflate data.
+   */
+  private static int skipHeader(byte[] input, int offset, int end) throws ZarrException {
+    if (end - offset < GZIP_HEADER.length + GZIP_TRAILER_LENGTH
+        || (input[offset] & 0xFF) != 0x1f || (input[offset + 1] & 0xFF) != 0x8b) {
+      throw new ZarrException("Error in decoding gzip: Not in gzip format.");
+    }
+    if (input[offset + 2] != Deflater.DEFLATED) {
+      throw new ZarrException("Error in decoding gzip: Unsupported compression method.");
+    }
+    final int flags = input[offset + 3] & 0xFF;
+    int position = offset + GZIP_HEADER.length;
+    if ((flags & FEXTRA) != 0) {
+      position += 2 + ((input[position] & 0xFF) | (input[position + 1] & 0xFF) << 8);
+    }
+    if ((flags & FNAME) != 0) {
+      position = skipZeroTerminated(input, position, end);
+    }
+    if ((flags & FCOMMENT) != 0) {
+      position = skipZeroTerminated(input, position, end);
+    }
+    if ((flags & FHCRC) != 0) {
+      position += 2;
+    }
+    if (position > end) {
+      throw new ZarrException("Error in decoding gzip: Truncated header.");
+    }
+    return position;
+  }
+
+  private static int skipZeroTerminated(byte[] input, int position, int end) {
+    while (position < end && input[position] != 0) {
+      position++;
+    }
+    return position + 1;
+  }
+
+  private static int readIntLE(byte[] input, int offset) {
+    return (input[offset] & 0xFF) | (input[offset + 1] & 0xFF) << 8
+        | (input[offset + 2] & 0xFF) << 16 | (input[offset + 3] & 0xFF) << 24;
+  }
+
+  private static void writeIntLE(byte[] output, int offset, int value) {
+    output[offset] = (byte) value;
+    output[offset + 1] = (byte) (value >>> 8);
+    output[offset + 2] = (byte) (value >>> 16);
+    output[offset + 3] = (byte) (value >>> 24);
+  }
+
+  @Override
+  public boolean supportsEncodeFromScratch() {
+    return true;
+  }
+
   @Override
   public ByteBuffer encode(ByteBuffer chunkBytes)
       throws ZarrException {
-    try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream(); GZIPOutputStream gzipStream = new GZIPOutputStream(
-        outputStream)) {
-      gzipStream.write(Utils.toArray(chunkBytes));
-      gzipStream.close();
-      return ByteBuffer.wrap(outputStream.toByteArray());
-    } catch (IOException ex) {
-      throw new ZarrException("Error in encoding gzip.", ex);
+    final BufferPool bufferPool = BufferPool.getDefault();
+    ByteBuffer inputScratch = null;
+    ByteBuffer outputScratch = null;
+    try {
+      final byte[] input;
+      final int inputOffset;
+      final int inputLength = chunkBytes.remaining();
+      if (chunkBytes.hasArray()) {
+        input = chunkBytes.array();
+        inputOffset = chunkBytes.arrayOffset() + chunkBytes.position();
+      } else {
+        inputScratch = bufferPool.acquire(inputLength);
+        inputScratch.put(chunkBytes.duplicate());
+        input = inputScratch.array();
+        inputOffset = 0;
+      }
+
+      final long maxOutputLength = maxEncodedLength(inputLength);
+      outputScratch = bufferPool.acquire((int) Math.min(maxOutputLength, Integer.MAX_VALUE - 8));
+      byte[] output = outputScratch.array();
+      System.arraycopy(GZIP_HEADER, 0, output, 0, GZIP_HEADER.length);
+      int outputLength = GZIP_HEADER.length;
+
+      final Deflater deflater = DEFLATER.get();
+      deflater.reset();
+      deflater.setLevel(configuration.level);
+      deflater.setInput(input, inputOffset, inputLength);
+      deflater.finish();
+      while (!deflater.finished()) {
+        if (outputLength == output.length) {
+          output = Arrays.copyOf(output, (int) Math.min(2L * output.length, Integer.MAX_VALUE - 8));
+        }
+        outputLength += deflater.deflate(output, outputLength, output.length - outputLength);
+      }
+      if (output.length - outputLength < GZIP_TRAILER_LENGTH) {
+        output = Arrays.copyOf(output, outputLength + GZIP_TRAILER_LENGTH);
+      }
+      final CRC32 crc32 = new CRC32();
+      crc32.update(input, inputOffset, inputLength);
+      writeIntLE(output, outputLength, (int) crc32.getValue());
+      writeIntLE(output, outputLength + 4, inputLength);
+      outputLength += GZIP_TRAILER_LENGTH;
+      return ByteBuffer.wrap(Arrays.copyOf(output, outputLength));
+    } finally {
+      bufferPool.release(inputScratch);
+      bufferPool.release(outputScratch);
     }
   }
 
+  /**
+   * Same bound as zlib's deflateBound, plus the gzip header and trailer.
+   */
+  private static long maxEncodedLength(long inputLength) {
+    return inputLength + (inputLength >> 12) + (inputLength >> 14) + (inputLength >> 25) + 13
+        + GZIP_HEADER.length + GZIP_TRAILER_LENGTH;
+  }
+
   @Override
   public long computeEncodedSize(long inputByteLength,
-      ArrayMetadata.CoreArrayMetadata arrayMetadata) throws ZarrException {
-    throw new ZarrException("Not implemented for Gzip codec.");
+      ArrayMetadata.CoreArrayMetadata arrayMetadata) {
+    return maxEncodedLength(inputByteLength);
+  }
+
+  @Override
+  protected boolean hasFixedEncodedSize() {
+    return false;
   }
 
   public static final class Configuration {
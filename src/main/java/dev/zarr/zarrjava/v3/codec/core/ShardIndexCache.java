@@ -0,0 +1,111 @@
+package dev.zarr.zarrjava.v3.codec.core;
+
+import dev.zarr.zarrjava.v3.codec.core.ShardingIndexedCodec.ShardIndex;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A size-bounded LRU cache of decoded shard indexes, keyed by the location of the shard. The size
+ * is measured in bytes of the offset/length tables. The cache is disabled by default, because it
+ * cannot detect shards that are modified by other writers.
+ */
+public class ShardIndexCache {
+
+  public static final long DEFAULT_MAX_SIZE_BYTES = 0;
+
+  private long maxSizeBytes;
+  private final LinkedHashMap<String, ShardIndex> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long sizeBytes = 0;
+  private long generation = 0;
+  private long hitCount = 0;
+  private long missCount = 0;
+
+  ShardIndexCache(long maxSizeBytes) {
+    setMaxSizeBytes(maxSizeBytes);
+  }
+
+  @Nullable
+  synchronized ShardIndex get(@Nonnull String shardKey) {
+    ShardIndex shardIndex = entries.get(shardKey);
+    if (shardIndex == null) {
+      missCount++;
+    } else {
+      hitCount++;
+    }
+    return shardIndex;
+  }
+
+  synchronized long generation() {
+    return generation;
+  }
+
+  synchronized void put(@Nonnull String shardKey, @Nonnull ShardIndex shardIndex,
+      long expectedGeneration) {
+    if (expectedGeneration != generation || shardIndex.byteLength() > maxSizeBytes) {
+      return;
+    }
+    ShardIndex previousShardIndex = entries.put(shardKey, shardIndex);
+    if (previousShardIndex != null) {
+      sizeBytes -= previousShardIndex.byteLength();
+    }
+    sizeBytes += shardIndex.byteLength();
+    evict();
+  }
+
+  synchronized void invalidate(@Nonnull String shardKey) {
+    generation++;
+    ShardIndex shardIndex = entries.remove(shardKey);
+    if (shardIndex != null) {
+      sizeBytes -= shardIndex.byteLength();
+    }
+  }
+
+  private void evict() {
+    Iterator<ShardIndex> iterator = entries.values().iterator();
+    while (sizeBytes > maxSizeBytes && iterator.hasNext()) {
+      sizeBytes -= iterator.next().byteLength();
+      iterator.remove();
+    }
+  }
+
+  public synchronized void clear() {
+    generation++;
+    entries.clear();
+    sizeBytes = 0;
+  }
+
+  /**
+   * Sets the maximum size of the cache. A size of 0 disables caching.
+   *
+   * @param maxSizeBytes
+   */
+  public synchronized void setMaxSizeBytes(long maxSizeBytes) {
+    if (maxSizeBytes < 0) {
+      throw new IllegalArgumentException("'maxSizeBytes' needs to be non-negative.");
+    }
+    this.maxSizeBytes = maxSizeBytes;
+    evict();
+  }
+
+  public synchronized long getMaxSizeBytes() {
+    return maxSizeBytes;
+  }
+
+  public synchronized long getSizeBytes() {
+    return sizeBytes;
+  }
+
+  public synchronized int getEntryCount() {
+    return entries.size();
+  }
+
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+}
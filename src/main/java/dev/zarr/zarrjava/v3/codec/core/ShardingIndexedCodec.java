@@ -1,9 +1,11 @@
 package dev.zarr.zarrjava.v3.codec.core;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import dev.zarr.zarrjava.ZarrException;
 import dev.zarr.zarrjava.store.StoreHandle;
+import dev.zarr.zarrjava.utils.ByteRangeUtils;
 import dev.zarr.zarrjava.utils.IndexingUtils;
 import dev.zarr.zarrjava.utils.MultiArrayUtils;
 import dev.zarr.zarrjava.utils.Utils;
@@ -13,11 +15,19 @@ import dev.zarr.zarrjava.v3.DataType;
 import dev.zarr.zarrjava.v3.codec.ArrayBytesCodec;
 import dev.zarr.zarrjava.v3.codec.Codec;
 import dev.zarr.zarrjava.v3.codec.CodecPipeline;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import ucar.ma2.Array;
 import ucar.ma2.InvalidRangeException;
 
@@ -29,6 +39,18 @@ public class ShardingIndexedCodec extends ArrayBytesCodec.WithPartialDecode {
   public final Configuration configuration;
   CodecPipeline codecPipeline;
   CodecPipeline indexCodecPipeline;
+  @Nonnull
+  final ShardIndexCache shardIndexCache = new ShardIndexCache(
+      ShardIndexCache.DEFAULT_MAX_SIZE_BYTES);
+  long rangeCoalescingMaxGap = DEFAULT_RANGE_COALESCING_MAX_GAP;
+  long rangeCoalescingMaxLength = DEFAULT_RANGE_COALESCING_MAX_LENGTH;
+  @Nullable
+  ForkJoinPool decodePool = null;
+  int parallelDecodeThreshold = DEFAULT_PARALLEL_DECODE_THRESHOLD;
+
+  public static final long DEFAULT_RANGE_COALESCING_MAX_GAP = 64L * 1024;
+  public static final long DEFAULT_RANGE_COALESCING_MAX_LENGTH = 16L * 1024 * 1024;
+  public static final int DEFAULT_PARALLEL_DECODE_THRESHOLD = 8;
 
   @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
   public ShardingIndexedCodec(
@@ -48,6 +70,11 @@ public class ShardingIndexedCodec extends ArrayBytesCodec.WithPartialDecode {
         );
     this.codecPipeline = new CodecPipeline(configuration.codecs, shardMetadata);
     this.indexCodecPipeline = new CodecPipeline(configuration.indexCodecs, getShardIndexArrayMetadata(getChunksPerShard(arrayMetadata)));
+    if (!indexCodecPipeline.hasFixedEncodedSize()) {
+      throw new ZarrException(
+          "The index codecs need to have a fixed encoded size, so that the shard index can be "
+              + "located. Found " + Arrays.toString(configuration.indexCodecs) + ".");
+    }
   }
 
   ArrayMetadata.CoreArrayMetadata getShardIndexArrayMetadata(int[] chunksPerShard) {
@@ -80,12 +107,6 @@ public class ShardingIndexedCodec extends ArrayBytesCodec.WithPartialDecode {
     return out;
   }
 
-  long getValueFromShardIndexArray(Array shardIndexArray, long[] chunkCoords, int idx) {
-    return shardIndexArray.getLong(
-        shardIndexArray.getIndex()
-            .set(Utils.toIntArray(extendArrayBy1(chunkCoords, idx))));
-  }
-
   void setValueFromShardIndexArray(Array shardIndexArray, long[] chunkCoords, int idx, long value) {
     shardIndexArray.setLong(
         shardIndexArray.getIndex()
@@ -95,8 +116,9 @@ public class ShardingIndexedCodec extends ArrayBytesCodec.WithPartialDecode {
   @Override
   public Array decode(ByteBuffer shardBytes)
       throws ZarrException {
-    return decodeInternal(new ByteBufferDataProvider(shardBytes), new long[arrayMetadata.ndim()],
-        arrayMetadata.chunkShape, arrayMetadata);
+    final DataProvider dataProvider = new ByteBufferDataProvider(shardBytes);
+    return decodeInternal(dataProvider, readShardIndex(dataProvider),
+        new long[arrayMetadata.ndim()], arrayMetadata.chunkShape, arrayMetadata);
   }
 
   @Override
@@ -110,37 +132,28 @@ public class ShardingIndexedCodec extends ArrayBytesCodec.WithPartialDecode {
         extendArrayBy1(chunksPerShard, 2));
     final List<ByteBuffer> chunkBytesList = new ArrayList<>(chunkCount);
 
-    Arrays.stream(
-            IndexingUtils.computeChunkCoords(shardMetadata.shape, shardMetadata.chunkShape))
-        .parallel()
+    // The chunk coordinates are only used within each task, so they can share the arrays of the
+    // spliterator.
+    StreamSupport.stream(IndexingUtils.computeChunkCoordsRange(shardMetadata.shape,
+            shardMetadata.chunkShape).spliterator(), true)
         .forEach(
             chunkCoords -> {
               try {
-                final int i =
-                    (int) IndexingUtils.cOrderIndex(chunkCoords, Utils.toLongArray(chunksPerShard));
-                final IndexingUtils.ChunkProjection chunkProjection =
-                    IndexingUtils.computeProjection(chunkCoords, shardMetadata.shape,
-                        shardMetadata.chunkShape
-                    );
-                final Array chunkArray =
-                    shardArray.sectionNoReduce(chunkProjection.outOffset, chunkProjection.shape,
-                        null
-                    );
-                if (MultiArrayUtils.allValuesEqual(chunkArray, shardMetadata.parsedFillValue)) {
+                final ByteBuffer chunkBytes = encodeChunk(shardArray, chunkCoords);
+                if (chunkBytes == null) {
                   setValueFromShardIndexArray(shardIndexArray, chunkCoords, 0, -1);
                   setValueFromShardIndexArray(shardIndexArray, chunkCoords, 1, -1);
                 } else {
-                  final ByteBuffer chunkBytes = codecPipeline.encode(chunkArray);
                   synchronized (chunkBytesList) {
                     int chunkByteOffset = chunkBytesList.stream()
-                            .mapToInt(ByteBuffer::capacity)
+                            .mapToInt(ByteBuffer::remaining)
                             .sum();
                     if (configuration.indexLocation.equals("start")) {
                       chunkByteOffset += (int) getShardIndexSize(arrayMetadata);
                     }
                     setValueFromShardIndexArray(shardIndexArray, chunkCoords, 0, chunkByteOffset);
                     setValueFromShardIndexArray(shardIndexArray, chunkCoords, 1,
-                        chunkBytes.capacity());
+                        chunkBytes.remaining());
                     chunkBytesList.add(chunkBytes);
                   }
                 }
@@ -149,7 +162,7 @@ public class ShardingIndexedCodec extends ArrayBytesCodec.WithPartialDecode {
               }
             });
     final int shardBytesLength = chunkBytesList.stream()
-        .mapToInt(ByteBuffer::capacity)
+        .mapToInt(ByteBuffer::remaining)
         .sum() + (int) getShardIndexSize(arrayMetadata);
     final ByteBuffer shardBytes = ByteBuffer.allocate(shardBytesLength);
     if(configuration.indexLocation.equals("start")){
@@ -165,10 +178,128 @@ public class ShardingIndexedCodec extends ArrayBytesCodec.WithPartialDecode {
     return shardBytes;
   }
 
+  /**
+   * Encodes the inner chunk at the provided coordinates. Returns null if the chunk only contains
+   * the fill value and therefore does not need to be stored.
+   */
+  @Nullable
+  private ByteBuffer encodeChunk(Array shardArray, long[] chunkCoords)
+      throws ZarrException, InvalidRangeException {
+    final ArrayMetadata.CoreArrayMetadata shardMetadata = codecPipeline.arrayMetadata;
+    final IndexingUtils.ChunkProjection chunkProjection =
+        IndexingUtils.computeProjection(chunkCoords, shardMetadata.shape,
+            shardMetadata.chunkShape
+        );
+    final Array chunkArray =
+        shardArray.sectionNoReduce(chunkProjection.outOffset, chunkProjection.shape,
+            null
+        );
+    if (MultiArrayUtils.allValuesEqual(chunkArray, shardMetadata.parsedFillValue)) {
+      return null;
+    }
+    return codecPipeline.encode(chunkArray);
+  }
+
+  /**
+   * Encodes the shard and streams it to the store. The inner chunks are encoded concurrently in
+   * small batches and written in C order, followed by the shard index. Therefore, only a few
+   * encoded inner chunks are held in memory at any time. Shards with the index at the start are
+   * encoded in memory, because the index needs to be written before the chunks.
+   */
+  @Override
+  protected void encodeTo(final Array shardArray, StoreHandle shardHandle) throws ZarrException {
+    if (!configuration.indexLocation.equals("end")) {
+      super.encodeTo(shardArray, shardHandle);
+      return;
+    }
+    final ArrayMetadata.CoreArrayMetadata shardMetadata = codecPipeline.arrayMetadata;
+    final IndexingUtils.ChunkCoordsRange chunkCoordsRange =
+        IndexingUtils.computeChunkCoordsRange(shardMetadata.shape, shardMetadata.chunkShape);
+    final int chunkCount = Math.toIntExact(chunkCoordsRange.size());
+    final Array shardIndexArray = Array.factory(ucar.ma2.DataType.ULONG,
+        extendArrayBy1(getChunksPerShard(arrayMetadata), 2));
+    final int batchSize = Runtime.getRuntime().availableProcessors();
+
+    try {
+      shardHandle.set(outputStream -> {
+        final WritableByteChannel channel = Channels.newChannel(outputStream);
+        final long[] chunkCoords = new long[shardMetadata.ndim()];
+        long chunkByteOffset = 0;
+        for (int batchStart = 0; batchStart < chunkCount; batchStart += batchSize) {
+          final int batchOffset = batchStart;
+          final ByteBuffer[] batchBytes =
+              new ByteBuffer[Math.min(batchSize, chunkCount - batchStart)];
+          IntStream.range(0, batchBytes.length)
+              .parallel()
+              .forEach(i -> {
+                try {
+                  batchBytes[i] = encodeChunk(shardArray,
+                      chunkCoordsRange.computeChunkCoords(batchOffset + i));
+                } catch (ZarrException | InvalidRangeException e) {
+                  throw new RuntimeException(e);
+                }
+              });
+          for (int i = 0; i < batchBytes.length; i++) {
+            chunkCoordsRange.computeChunkCoords(batchOffset + i, chunkCoords);
+            final ByteBuffer chunkBytes = batchBytes[i];
+            if (chunkBytes == null) {
+              setValueFromShardIndexArray(shardIndexArray, chunkCoords, 0, -1);
+              setValueFromShardIndexArray(shardIndexArray, chunkCoords, 1, -1);
+            } else {
+              setValueFromShardIndexArray(shardIndexArray, chunkCoords, 0, chunkByteOffset);
+              setValueFromShardIndexArray(shardIndexArray, chunkCoords, 1,
+                  chunkBytes.remaining());
+              chunkByteOffset += chunkBytes.remaining();
+              writeFully(channel, chunkBytes);
+            }
+          }
+        }
+        try {
+          writeFully(channel, indexCodecPipeline.encode(shardIndexArray));
+        } catch (ZarrException e) {
+          throw new RuntimeException(e);
+        }
+      });
+    } catch (RuntimeException e) {
+      throw unwrapZarrException(e);
+    }
+  }
+
+  /**
+   * Returns the ZarrException that caused a failure of the encoding lambdas, or rethrows the
+   * failure. The whole cause chain is searched, because a parallel stream wraps the exception of a
+   * worker thread in another RuntimeException when it rethrows it on the calling thread.
+   */
+  private static ZarrException unwrapZarrException(RuntimeException e) {
+    for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+      if (cause instanceof ZarrException) {
+        return (ZarrException) cause;
+      }
+    }
+    throw e;
+  }
+
+  private static void writeFully(WritableByteChannel channel, ByteBuffer bytes)
+      throws IOException {
+    while (bytes.hasRemaining()) {
+      channel.write(bytes);
+    }
+  }
+
   @Override
   public long computeEncodedSize(long inputByteLength,
       ArrayMetadata.CoreArrayMetadata arrayMetadata) throws ZarrException {
-    return inputByteLength + getShardIndexSize(arrayMetadata);
+    // The inner chunks are encoded separately, so their bounds add up.
+    final long chunkCount = Arrays.stream(getChunksPerShard(arrayMetadata))
+        .asLongStream().reduce(1, (r, a) -> r * a);
+    return chunkCount * codecPipeline.computeEncodedSize(
+        codecPipeline.arrayMetadata.chunkByteLength(), codecPipeline.arrayMetadata)
+        + getShardIndexSize(arrayMetadata);
+  }
+
+  @Override
+  protected boolean hasFixedEncodedSize() {
+    return false;
   }
 
   private long getShardIndexSize(CoreArrayMetadata arrayMetadata) throws ZarrException {
@@ -178,62 +309,107 @@ public class ShardingIndexedCodec extends ArrayBytesCodec.WithPartialDecode {
     );
   }
 
-  private Array decodeInternal(
-      DataProvider dataProvider, long[] offset, int[] shape,
-      ArrayMetadata.CoreArrayMetadata arrayMetadata
-  ) throws ZarrException {
-    final ArrayMetadata.CoreArrayMetadata shardMetadata = codecPipeline.arrayMetadata;
-
-    final Array outputArray = Array.factory(arrayMetadata.dataType.getMA2DataType(), shape);
+  /**
+   * Reads and decodes the shard index. Returns null if the shard does not exist.
+   */
+  @Nullable
+  private ShardIndex readShardIndex(DataProvider dataProvider) throws ZarrException {
     final int shardIndexByteLength = (int) getShardIndexSize(arrayMetadata);
     ByteBuffer shardIndexBytes;
     if (this.configuration.indexLocation.equals("start")) {
       shardIndexBytes = dataProvider.readPrefix(shardIndexByteLength);
-    }else if(this.configuration.indexLocation.equals("end")){
+    } else if (this.configuration.indexLocation.equals("end")) {
       shardIndexBytes = dataProvider.readSuffix(shardIndexByteLength);
-    }else{
+    } else {
       throw new ZarrException("Only index_location \"start\" or \"end\" are supported.");
     }
     if (shardIndexBytes == null) {
-      throw new ZarrException("Could not read shard index.");
+      return null;
     }
     final Array shardIndexArray = indexCodecPipeline.decode(shardIndexBytes);
-    long[][] allChunkCoords = IndexingUtils.computeChunkCoords(shardMetadata.shape,
-        shardMetadata.chunkShape, offset,
-        shape);
+    return new ShardIndex((long[]) shardIndexArray.get1DJavaArray(ucar.ma2.DataType.LONG));
+  }
 
-    Arrays.stream(allChunkCoords)
-        // .parallel()
-        .forEach(
-            chunkCoords -> {
-              try {
-                final long chunkByteOffset = getValueFromShardIndexArray(shardIndexArray,
-                    chunkCoords, 0);
-                final long chunkByteLength = getValueFromShardIndexArray(shardIndexArray,
-                    chunkCoords, 1);
-                Array chunkArray = null;
-                final IndexingUtils.ChunkProjection chunkProjection =
-                    IndexingUtils.computeProjection(chunkCoords, shardMetadata.shape,
-                        shardMetadata.chunkShape, offset, shape
-                    );
-                if (chunkByteOffset != -1 && chunkByteLength != -1) {
-                  final ByteBuffer chunkBytes = dataProvider.read(chunkByteOffset, chunkByteLength);
-                  if (chunkBytes == null) {
-                    throw new ZarrException(String.format("Could not load byte data for chunk %s",
-                        Arrays.toString(chunkCoords)));
-                  }
-                  chunkArray = codecPipeline.decode(chunkBytes);
-                }
-                if (chunkArray == null) {
-                  chunkArray = shardMetadata.allocateFillValueChunk();
-                }
-                MultiArrayUtils.copyRegion(chunkArray, chunkProjection.chunkOffset, outputArray,
-                    chunkProjection.outOffset, chunkProjection.shape
-                );
-              } catch (ZarrException e) {
-                throw new RuntimeException(e);
-              }
-            });
+  private Array decodeInternal(
+      DataProvider dataProvider, @Nullable ShardIndex shardIndex, long[] offset, int[] shape,
+      ArrayMetadata.CoreArrayMetadata arrayMetadata
+  ) throws ZarrException {
+    final ArrayMetadata.CoreArrayMetadata shardMetadata = codecPipeline.arrayMetadata;
+
+    // Empty chunks are skipped below, so the output array starts out with the fill value.
+    final Array outputArray = Array.factory(arrayMetadata.dataType.getMA2DataType(), shape);
+    if (!MultiArrayUtils.isDefaultValue(arrayMetadata.parsedFillValue)) {
+      MultiArrayUtils.fill(outputArray, arrayMetadata.parsedFillValue);
+    }
+    if (shardIndex == null) {
+      return outputArray;
+    }
+    final long[] chunksPerShard = Utils.toLongArray(getChunksPerShard(arrayMetadata));
+    final IndexingUtils.ChunkCoordsRange chunkCoordsRange =
+        IndexingUtils.computeChunkCoordsRange(shardMetadata.chunkShape, offset,
+            Utils.toLongArray(shape), IndexingUtils.TraversalOrder.C);
+    final int chunkCount = Math.toIntExact(chunkCoordsRange.size());
+
+    // Fetch the bytes of all non-empty chunks upfront, so that the data provider can combine
+    // them into fewer requests.
+    final int[] chunkIdxs = new int[chunkCount];
+    final long[] chunkCoordsBuffer = new long[shardMetadata.ndim()];
+    final int[] nonEmptyChunks = IntStream.range(0, chunkCount)
+        .filter(i -> {
+          chunkIdxs[i] = (int) IndexingUtils.cOrderIndex(
+              chunkCoordsRange.computeChunkCoords(i, chunkCoordsBuffer), chunksPerShard);
+          return !shardIndex.isEmpty(chunkIdxs[i]);
+        })
+        .toArray();
+    final ByteBuffer[] nonEmptyChunkBytes = dataProvider.readRanges(
+        Arrays.stream(nonEmptyChunks)
+            .mapToLong(i -> shardIndex.getChunkByteOffset(chunkIdxs[i]))
+            .toArray(),
+        Arrays.stream(nonEmptyChunks)
+            .mapToLong(i -> shardIndex.getChunkByteLength(chunkIdxs[i]))
+            .toArray());
+    final ByteBuffer[] allChunkBytes = new ByteBuffer[chunkCount];
+    final boolean[] isEmptyChunk = new boolean[chunkCount];
+    Arrays.fill(isEmptyChunk, true);
+    for (int i = 0; i < nonEmptyChunks.length; i++) {
+      allChunkBytes[nonEmptyChunks[i]] = nonEmptyChunkBytes[i];
+      isEmptyChunk[nonEmptyChunks[i]] = false;
+    }
+
+    // Every chunk is copied into a disjoint region of the output array, so the chunks can be
+    // decoded concurrently.
+    final IntConsumer decodeChunk = i -> {
+      try {
+        if (isEmptyChunk[i]) {
+          return;
+        }
+        final long[] chunkCoords = chunkCoordsRange.computeChunkCoords(i);
+        final IndexingUtils.ChunkProjection chunkProjection =
+            IndexingUtils.computeProjection(chunkCoords, shardMetadata.shape,
+                shardMetadata.chunkShape, offset, shape
+            );
+        final ByteBuffer chunkBytes = allChunkBytes[i];
+        if (chunkBytes == null) {
+          throw new ZarrException(String.format("Could not load byte data for chunk %s",
+              Arrays.toString(chunkCoords)));
+        }
+        final Array chunkArray = codecPipeline.decode(chunkBytes);
+        MultiArrayUtils.copyRegion(chunkArray, chunkProjection.chunkOffset, outputArray,
+            chunkProjection.outOffset, chunkProjection.shape
+        );
+      } catch (ZarrException e) {
+        throw new RuntimeException(e);
+      }
+    };
+
+    final IntStream chunkStream = IntStream.range(0, chunkCount);
+    if (nonEmptyChunks.length < parallelDecodeThreshold) {
+      chunkStream.forEach(decodeChunk);
+    } else if (decodePool == null) {
+      chunkStream.parallel().forEach(decodeChunk);
+    } else {
+      decodePool.submit(() -> chunkStream.parallel().forEach(decodeChunk)).join();
+    }
 
     return outputArray;
   }
@@ -245,21 +421,264 @@ public class ShardingIndexedCodec extends ArrayBytesCodec.WithPartialDecode {
       if (chunkBytes == null) {
         return arrayMetadata.allocateFillValueChunk();
       }
-      return decodeInternal(new ByteBufferDataProvider(chunkHandle.read()), offset, shape, arrayMetadata);
+      return decode(chunkBytes);
+    }
+    final DataProvider dataProvider = new StoreHandleDataProvider(chunkHandle,
+        rangeCoalescingMaxGap, rangeCoalescingMaxLength);
+    final String shardKey = chunkHandle.toString();
+    ShardIndex shardIndex = shardIndexCache.get(shardKey);
+    if (shardIndex == null) {
+      final long cacheGeneration = shardIndexCache.generation();
+      shardIndex = readShardIndex(dataProvider);
+      if (shardIndex != null) {
+        shardIndexCache.put(shardKey, shardIndex, cacheGeneration);
+      }
+    }
+    return decodeInternal(dataProvider, shardIndex, offset, shape, arrayMetadata);
+  }
+
+  /**
+   * Writes `array` into a region of the shard at the provided handle. Only the inner chunks that
+   * intersect with the region are decoded and re-encoded. The encoded bytes of all other inner
+   * chunks are copied verbatim from the existing shard and the shard index is rebuilt.
+   */
+  @Override
+  protected void encodePartial(StoreHandle shardHandle, final Array array, final long[] offset)
+      throws ZarrException {
+    final ArrayMetadata.CoreArrayMetadata shardMetadata = codecPipeline.arrayMetadata;
+    final int[] shape = array.getShape();
+    final long[] chunksPerShard = Utils.toLongArray(getChunksPerShard(arrayMetadata));
+    final int chunkCount = (int) Arrays.stream(chunksPerShard).reduce(1, (r, a) -> r * a);
+    final DataProvider dataProvider = new StoreHandleDataProvider(shardHandle,
+        rangeCoalescingMaxGap, rangeCoalescingMaxLength);
+    final ShardIndex oldShardIndex = readShardIndex(dataProvider);
+
+    // Re-encode the inner chunks that intersect with the region. Chunks that only contain the
+    // fill value are left as null.
+    final boolean[] isUpdatedChunk = new boolean[chunkCount];
+    final ByteBuffer[] updatedChunkBytes = new ByteBuffer[chunkCount];
+    StreamSupport.stream(IndexingUtils.computeChunkCoordsRange(shardMetadata.chunkShape, offset,
+            Utils.toLongArray(shape), IndexingUtils.TraversalOrder.C).spliterator(), true)
+        .forEach(chunkCoords -> {
+          try {
+            final int chunkIdx = (int) IndexingUtils.cOrderIndex(chunkCoords, chunksPerShard);
+            final IndexingUtils.ChunkProjection chunkProjection =
+                IndexingUtils.computeProjection(chunkCoords, shardMetadata.shape,
+                    shardMetadata.chunkShape, offset, shape
+                );
+            Array chunkArray;
+            if (IndexingUtils.isFullChunk(chunkProjection.chunkOffset, chunkProjection.shape,
+                shardMetadata.chunkShape)) {
+              chunkArray = array.sectionNoReduce(chunkProjection.outOffset, chunkProjection.shape,
+                  null);
+            } else {
+              chunkArray = null;
+              if (oldShardIndex != null && !oldShardIndex.isEmpty(chunkIdx)) {
+                final ByteBuffer chunkBytes = dataProvider.read(
+                    oldShardIndex.getChunkByteOffset(chunkIdx),
+                    oldShardIndex.getChunkByteLength(chunkIdx));
+                if (chunkBytes == null) {
+                  throw new ZarrException(String.format(
+                      "Could not load byte data for chunk %s", Arrays.toString(chunkCoords)));
+                }
+                chunkArray = codecPipeline.decode(chunkBytes);
+              }
+              if (chunkArray == null) {
+                chunkArray = shardMetadata.allocateFillValueChunk();
+              }
+              MultiArrayUtils.copyRegion(array, chunkProjection.outOffset, chunkArray,
+                  chunkProjection.chunkOffset, chunkProjection.shape
+              );
+            }
+            if (!MultiArrayUtils.allValuesEqual(chunkArray, shardMetadata.parsedFillValue)) {
+              updatedChunkBytes[chunkIdx] = codecPipeline.encode(chunkArray);
+            }
+            isUpdatedChunk[chunkIdx] = true;
+          } catch (ZarrException | InvalidRangeException e) {
+            throw new RuntimeException(e);
+          }
+        });
+
+    // Lay out all inner chunks in C order and build the new shard index.
+    final long[] newOffsetsAndLengths = new long[2 * chunkCount];
+    long chunkByteOffset =
+        configuration.indexLocation.equals("start") ? getShardIndexSize(arrayMetadata) : 0;
+    for (int chunkIdx = 0; chunkIdx < chunkCount; chunkIdx++) {
+      long chunkByteLength = -1;
+      if (isUpdatedChunk[chunkIdx]) {
+        if (updatedChunkBytes[chunkIdx] != null) {
+          chunkByteLength = updatedChunkBytes[chunkIdx].remaining();
+        }
+      } else if (oldShardIndex != null && !oldShardIndex.isEmpty(chunkIdx)) {
+        chunkByteLength = oldShardIndex.getChunkByteLength(chunkIdx);
+      }
+      if (chunkByteLength == -1) {
+        newOffsetsAndLengths[2 * chunkIdx] = -1;
+        newOffsetsAndLengths[2 * chunkIdx + 1] = -1;
+      } else {
+        newOffsetsAndLengths[2 * chunkIdx] = chunkByteOffset;
+        newOffsetsAndLengths[2 * chunkIdx + 1] = chunkByteLength;
+        chunkByteOffset += chunkByteLength;
+      }
+    }
+    final ShardIndex newShardIndex = new ShardIndex(newOffsetsAndLengths);
+    if (IntStream.range(0, chunkCount).allMatch(newShardIndex::isEmpty)) {
+      shardHandle.delete();
+      return;
+    }
+    final ByteBuffer shardIndexBytes = indexCodecPipeline.encode(Array.factory(
+        ucar.ma2.DataType.ULONG, extendArrayBy1(getChunksPerShard(arrayMetadata), 2),
+        newOffsetsAndLengths));
+
+    try {
+      shardHandle.set(outputStream -> {
+        final WritableByteChannel channel = Channels.newChannel(outputStream);
+        if (configuration.indexLocation.equals("start")) {
+          writeFully(channel, shardIndexBytes.duplicate());
+        }
+        // Untouched chunks are copied in batches, so that neighboring chunks can be fetched with
+        // combined requests.
+        final List<Integer> pendingChunkIdxs = new ArrayList<>();
+        long pendingByteLength = 0;
+        for (int chunkIdx = 0; chunkIdx < chunkCount; chunkIdx++) {
+          if (updatedChunkBytes[chunkIdx] != null) {
+            copyChunks(dataProvider, oldShardIndex, pendingChunkIdxs, channel);
+            pendingByteLength = 0;
+            writeFully(channel, updatedChunkBytes[chunkIdx]);
+          } else if (!isUpdatedChunk[chunkIdx] && !newShardIndex.isEmpty(chunkIdx)) {
+            pendingChunkIdxs.add(chunkIdx);
+            pendingByteLength += oldShardIndex.getChunkByteLength(chunkIdx);
+            if (pendingByteLength >= rangeCoalescingMaxLength) {
+              copyChunks(dataProvider, oldShardIndex, pendingChunkIdxs, channel);
+              pendingByteLength = 0;
+            }
+          }
+        }
+        copyChunks(dataProvider, oldShardIndex, pendingChunkIdxs, channel);
+        if (configuration.indexLocation.equals("end")) {
+          writeFully(channel, shardIndexBytes.duplicate());
+        }
+      });
+    } catch (RuntimeException e) {
+      throw unwrapZarrException(e);
+    }
+  }
+
+  /**
+   * Copies the encoded bytes of the listed inner chunks to the channel and clears the list.
+   */
+  private static void copyChunks(DataProvider dataProvider, ShardIndex shardIndex,
+      List<Integer> chunkIdxs, WritableByteChannel channel) throws IOException {
+    if (chunkIdxs.isEmpty()) {
+      return;
+    }
+    final ByteBuffer[] chunkBytes = dataProvider.readRanges(
+        chunkIdxs.stream().mapToLong(shardIndex::getChunkByteOffset).toArray(),
+        chunkIdxs.stream().mapToLong(shardIndex::getChunkByteLength).toArray());
+    for (int i = 0; i < chunkBytes.length; i++) {
+      if (chunkBytes[i] == null) {
+        throw new IOException(
+            String.format("Could not load byte data for chunk %d", chunkIdxs.get(i)));
+      }
+      writeFully(channel, chunkBytes[i]);
+    }
+    chunkIdxs.clear();
+  }
+
+  @Override
+  protected void invalidate(StoreHandle chunkHandle) {
+    shardIndexCache.invalidate(chunkHandle.toString());
+  }
+
+  /**
+   * Configures how the byte ranges of inner chunks are combined when a part of a shard is read
+   * from a store. Ranges that are at most `maxGap` bytes apart are fetched with a single request,
+   * as long as the request does not exceed `maxLength` bytes. A `maxGap` of -1 disables merging.
+   *
+   * @param maxGap
+   * @param maxLength
+   */
+  public void setRangeCoalescing(long maxGap, long maxLength) {
+    this.rangeCoalescingMaxGap = maxGap;
+    this.rangeCoalescingMaxLength = maxLength;
+  }
+
+  /**
+   * Configures the concurrent decoding of inner chunks. Shards with fewer than `threshold`
+   * non-empty inner chunks in the requested region are decoded sequentially. Otherwise, the inner
+   * chunks are decoded on `pool`, or on the common pool if `pool` is null. A `threshold` of
+   * Integer.MAX_VALUE disables concurrent decoding.
+   *
+   * @param pool
+   * @param threshold
+   */
+  public void setParallelDecode(@Nullable ForkJoinPool pool, int threshold) {
+    if (threshold < 0) {
+      throw new IllegalArgumentException("'threshold' needs to be non-negative.");
     }
-    return decodeInternal(new StoreHandleDataProvider(chunkHandle), offset, shape, arrayMetadata);
+    this.decodePool = pool;
+    this.parallelDecodeThreshold = threshold;
   }
 
+  /**
+   * Returns the cache of decoded shard indexes that is used for partial reads. The cache is
+   * disabled by default and is enabled by setting its maximum size, e.g. through
+   * Array.withShardIndexCache. Shard indexes of shards that are written through this codec are
+   * invalidated automatically. Shards that are modified by other writers, e.g. another Array
+   * instance or process, are not detected. Therefore, the cache should only be enabled if the
+   * shards are not modified elsewhere, or it needs to be cleared after such modifications.
+   */
+  @JsonIgnore
+  @Nonnull
+  public ShardIndexCache getShardIndexCache() {
+    return shardIndexCache;
+  }
 
   interface DataProvider {
 
     ByteBuffer read(long start, long length);
 
+    /**
+     * Reads multiple byte ranges. The returned buffers correspond to the requested ranges. A
+     * buffer is null if its range could not be read.
+     */
+    ByteBuffer[] readRanges(long[] starts, long[] lengths);
+
     ByteBuffer readSuffix(long suffixLength);
 
     ByteBuffer readPrefix(long prefixLength);
   }
 
+  /**
+   * The decoded shard index as a flat table that holds the byte offset and byte length of every
+   * inner chunk in C order.
+   */
+  static final class ShardIndex {
+
+    @Nonnull
+    final long[] offsetsAndLengths;
+
+    ShardIndex(@Nonnull long[] offsetsAndLengths) {
+      this.offsetsAndLengths = offsetsAndLengths;
+    }
+
+    long getChunkByteOffset(int chunkIdx) {
+      return offsetsAndLengths[2 * chunkIdx];
+    }
+
+    long getChunkByteLength(int chunkIdx) {
+      return offsetsAndLengths[2 * chunkIdx + 1];
+    }
+
+    boolean isEmpty(int chunkIdx) {
+      return getChunkByteOffset(chunkIdx) == -1 || getChunkByteLength(chunkIdx) == -1;
+    }
+
+    long byteLength() {
+      return 8L * offsetsAndLengths.length;
+    }
+  }
+
   public static final class Configuration {
 
     @JsonProperty("chunk_shape")
@@ -324,15 +743,28 @@ public class ShardingIndexedCodec extends ArrayBytesCodec.WithPartialDecode {
       bufferSlice.limit((int) (start + length));
       return bufferSlice.slice();
     }
+
+    @Override
+    public ByteBuffer[] readRanges(long[] starts, long[] lengths) {
+      ByteBuffer[] buffers = new ByteBuffer[starts.length];
+      for (int i = 0; i < starts.length; i++) {
+        buffers[i] = read(starts[i], lengths[i]);
+      }
+      return buffers;
+    }
   }
 
   static class StoreHandleDataProvider implements DataProvider {
 
     @Nonnull
     final StoreHandle storeHandle;
+    final long maxGap;
+    final long maxLength;
 
-    StoreHandleDataProvider(@Nonnull StoreHandle storeHandle) {
+    StoreHandleDataProvider(@Nonnull StoreHandle storeHandle, long maxGap, long maxLength) {
       this.storeHandle = storeHandle;
+      this.maxGap = maxGap;
+      this.maxLength = maxLength;
     }
 
 
@@ -350,6 +782,22 @@ public class ShardingIndexedCodec extends ArrayBytesCodec.WithPartialDecode {
     public ByteBuffer read(long start, long length) {
       return storeHandle.read(start, start + length);
     }
+
+    @Override
+    public ByteBuffer[] readRanges(long[] starts, long[] lengths) {
+      ByteBuffer[] buffers = new ByteBuffer[starts.length];
+      for (ByteRangeUtils.CoalescedRange range : ByteRangeUtils.coalesce(starts, lengths, maxGap,
+          maxLength)) {
+        final ByteBuffer rangeBytes = read(range.start, range.length());
+        if (rangeBytes == null) {
+          continue;
+        }
+        for (int i : range.members()) {
+          buffers[i] = ByteRangeUtils.slice(rangeBytes, starts[i] - range.start, lengths[i]);
+        }
+      }
+      return buffers;
+    }
   }
 
 }
@@ -3,6 +3,7 @@ package dev.zarr.zarrjava.v3.codec.core;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import dev.zarr.zarrjava.ZarrException;
+import dev.zarr.zarrjava.utils.MultiArrayUtils;
 import dev.zarr.zarrjava.v3.ArrayMetadata;
 import dev.zarr.zarrjava.v3.codec.ArrayArrayCodec;
 import ucar.ma2.Array;
@@ -19,6 +20,7 @@ public class TransposeCodec extends ArrayArrayCodec {
     public final String name = "transpose";
     @Nonnull
     public final Configuration configuration;
+    int[] inverseOrder;
 
     @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
     public TransposeCodec(
@@ -29,29 +31,32 @@ public class TransposeCodec extends ArrayArrayCodec {
 
 
     @Override
-    public Array decode(Array chunkArray) throws ZarrException {
+    public void setCoreArrayMetadata(ArrayMetadata.CoreArrayMetadata arrayMetadata) throws ZarrException {
+        // The order is validated once, instead of for every chunk.
         if (!isPermutation(configuration.order)){
             throw new ZarrException("Order is no permutation array");
         }
         if (arrayMetadata.ndim() != configuration.order.length) {
             throw new ZarrException("Array has not the same ndim as transpose codec order");
         }
-        chunkArray = chunkArray.permute(inversePermutation(configuration.order));
-        return chunkArray;
+        super.setCoreArrayMetadata(arrayMetadata);
+        this.inverseOrder = inversePermutation(configuration.order);
     }
 
-
+    @Override
+    public Array decode(Array chunkArray) throws ZarrException {
+        if (inverseOrder == null) {
+            resolveArrayMetadata();
+        }
+        return MultiArrayUtils.transpose(chunkArray, inverseOrder);
+    }
 
     @Override
     public Array encode(Array chunkArray) throws ZarrException {
-        if (!isPermutation(configuration.order)){
-            throw new ZarrException("Order is no permutation array");
-        }
-        if (arrayMetadata.ndim() != configuration.order.length) {
-            throw new ZarrException("Array has not the same ndim as transpose codec order");
+        if (inverseOrder == null) {
+            resolveArrayMetadata();
         }
-        chunkArray = chunkArray.permute(configuration.order);
-        return chunkArray;
+        return MultiArrayUtils.transpose(chunkArray, configuration.order);
     }
 
     @Override
@@ -72,7 +77,6 @@ public class TransposeCodec extends ArrayArrayCodec {
     @Override
     protected ArrayMetadata.CoreArrayMetadata resolveArrayMetadata() throws ZarrException {
         super.resolveArrayMetadata();
-        assert arrayMetadata.ndim() == configuration.order.length;
 
         int[] transposedChunkShape = new int[arrayMetadata.ndim()];
         Arrays.setAll(transposedChunkShape, i -> arrayMetadata.chunkShape[configuration.order[i]]);
@@ -4,15 +4,29 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.github.luben.zstd.Zstd;
 import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdException;
 import dev.zarr.zarrjava.ZarrException;
+import dev.zarr.zarrjava.utils.BufferPool;
+import dev.zarr.zarrjava.utils.Utils;
 import dev.zarr.zarrjava.v3.ArrayMetadata;
 import dev.zarr.zarrjava.v3.codec.BytesBytesCodec;
 
 import javax.annotation.Nonnull;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.function.Supplier;
 
 public class ZstdCodec extends BytesBytesCodec {
 
+    // Contexts hold a few MB of native state, which is expensive to set up for every chunk. They
+    // are borrowed from pools shared by all codecs and configured for each use. zstd-jni only frees
+    // the native state in close(), so the pools are bounded and surplus contexts are closed.
+    private static final int MAX_POOLED_CONTEXTS = Runtime.getRuntime().availableProcessors();
+    private static final ArrayDeque<ZstdCompressCtx> COMPRESS_CTXS = new ArrayDeque<>();
+    private static final ArrayDeque<ZstdDecompressCtx> DECOMPRESS_CTXS = new ArrayDeque<>();
+
     public final String name = "zstd";
     @Nonnull
     public final Configuration configuration;
@@ -25,33 +39,186 @@ public class ZstdCodec extends BytesBytesCodec {
 
     @Override
     public ByteBuffer decode(ByteBuffer compressedBytes) throws ZarrException {
-        byte[] compressedArray = compressedBytes.array();
-
-        long originalSize = Zstd.decompressedSize(compressedArray);
-        if (originalSize == 0) {
+        final long decodedSize = computeDecodedSize(compressedBytes);
+        if (decodedSize < 0 || decodedSize > Integer.MAX_VALUE) {
             throw new ZarrException("Failed to get decompressed size");
         }
+        final int originalSize = (int) decodedSize;
+        final ByteBuffer decompressed = compressedBytes.isDirect()
+                ? ByteBuffer.allocateDirect(originalSize) : ByteBuffer.allocate(originalSize);
+        decodeInto(compressedBytes, decompressed);
+        decompressed.flip();
+        return decompressed;
+    }
+
+    /**
+     * Returns the decompressed size of the zstd frame in the remaining bytes of the buffer, or -1 if
+     * the frame does not record it.
+     */
+    @Override
+    public long computeDecodedSize(ByteBuffer compressedBytes) {
+        final long originalSize;
+        if (compressedBytes.isDirect()) {
+            originalSize = Zstd.decompressedDirectByteBufferSize(compressedBytes,
+                    compressedBytes.position(), compressedBytes.remaining());
+        } else if (compressedBytes.hasArray()) {
+            originalSize = Zstd.decompressedSize(compressedBytes.array(),
+                    compressedBytes.arrayOffset() + compressedBytes.position(),
+                    compressedBytes.remaining());
+        } else {
+            originalSize = Zstd.decompressedSize(Utils.toArray(compressedBytes.duplicate()));
+        }
+        return originalSize > 0 ? originalSize : -1;
+    }
+
+    @Override
+    public boolean supportsDecodeInto() {
+        return true;
+    }
+
+    /**
+     * Decompresses the remaining bytes of `compressedBytes` into `output`, starting at its
+     * position. The position of `output` is advanced by the number of decompressed bytes, which is
+     * also returned. The position of `compressedBytes` is not modified.
+     *
+     * @param compressedBytes
+     * @param output
+     * @throws ZarrException if the data is corrupt or does not fit into the output buffer
+     */
+    @Override
+    public int decodeInto(ByteBuffer compressedBytes, ByteBuffer output) throws ZarrException {
+        final ZstdDecompressCtx ctx = acquireContext(DECOMPRESS_CTXS, ZstdDecompressCtx::new);
+        final int decompressedLength;
+        try {
+            if (output.isDirect()) {
+                ByteBuffer input = compressedBytes;
+                ByteBuffer scratch = null;
+                if (!input.isDirect()) {
+                    scratch = BufferPool.getDefault().acquireDirect(compressedBytes.remaining());
+                    scratch.put(compressedBytes.duplicate());
+                    scratch.flip();
+                    input = scratch;
+                }
+                try {
+                    decompressedLength = ctx.decompressDirectByteBuffer(output, output.position(),
+                            output.remaining(), input, input.position(), input.remaining());
+                } finally {
+                    BufferPool.getDefault().release(scratch);
+                }
+            } else if (output.hasArray()) {
+                final byte[] compressedArray;
+                final int compressedOffset;
+                if (compressedBytes.hasArray()) {
+                    compressedArray = compressedBytes.array();
+                    compressedOffset = compressedBytes.arrayOffset() + compressedBytes.position();
+                } else {
+                    compressedArray = Utils.toArray(compressedBytes.duplicate());
+                    compressedOffset = 0;
+                }
+                decompressedLength = ctx.decompressByteArray(output.array(),
+                        output.arrayOffset() + output.position(), output.remaining(),
+                        compressedArray, compressedOffset, compressedBytes.remaining());
+            } else {
+                throw new ZarrException("Cannot decode zstd into a read-only buffer.");
+            }
+        } catch (ZstdException ex) {
+            throw new ZarrException("Error in decoding zstd.", ex);
+        } finally {
+            releaseContext(DECOMPRESS_CTXS, ctx);
+        }
+        output.position(output.position() + decompressedLength);
+        return decompressedLength;
+    }
 
-        byte[] decompressed = Zstd.decompress(compressedArray, (int) originalSize);
-        return ByteBuffer.wrap(decompressed);
+    @Override
+    public boolean supportsEncodeFromScratch() {
+        return true;
     }
 
     @Override
     public ByteBuffer encode(ByteBuffer chunkBytes) throws ZarrException {
-        byte[] arr = chunkBytes.array();
-        byte[] compressed;
-        try (ZstdCompressCtx ctx = new ZstdCompressCtx()) {
+        final int chunkLength = chunkBytes.remaining();
+        final int maxCompressedLength = (int) Zstd.compressBound(chunkLength);
+        // The bytes are compressed into pooled scratch memory of the worst-case size and then
+        // copied into a buffer of the exact size.
+        final BufferPool bufferPool = BufferPool.getDefault();
+        final ZstdCompressCtx ctx = acquireContext(COMPRESS_CTXS, ZstdCompressCtx::new);
+        try {
             ctx.setLevel(configuration.level);
             ctx.setChecksum(configuration.checksum);
-            compressed = ctx.compress(arr);
+            if (chunkBytes.isDirect()) {
+                final ByteBuffer scratch = bufferPool.acquireDirect(maxCompressedLength);
+                try {
+                    final int compressedLength = ctx.compressDirectByteBuffer(scratch, 0,
+                            maxCompressedLength, chunkBytes, chunkBytes.position(), chunkLength);
+                    scratch.limit(compressedLength);
+                    final ByteBuffer compressed = ByteBuffer.allocateDirect(compressedLength);
+                    compressed.put(scratch);
+                    compressed.flip();
+                    return compressed;
+                } finally {
+                    bufferPool.release(scratch);
+                }
+            }
+            final byte[] chunkArray;
+            final int chunkOffset;
+            if (chunkBytes.hasArray()) {
+                chunkArray = chunkBytes.array();
+                chunkOffset = chunkBytes.arrayOffset() + chunkBytes.position();
+            } else {
+                chunkArray = Utils.toArray(chunkBytes.duplicate());
+                chunkOffset = 0;
+            }
+            final ByteBuffer scratch = bufferPool.acquire(maxCompressedLength);
+            try {
+                final int compressedLength = ctx.compressByteArray(scratch.array(), 0,
+                        maxCompressedLength, chunkArray, chunkOffset, chunkLength);
+                return ByteBuffer.wrap(Arrays.copyOf(scratch.array(), compressedLength));
+            } finally {
+                bufferPool.release(scratch);
+            }
+        } catch (ZstdException ex) {
+            throw new ZarrException("Error in encoding zstd.", ex);
+        } finally {
+            releaseContext(COMPRESS_CTXS, ctx);
+        }
+    }
+
+    private static <T extends AutoCloseable> T acquireContext(ArrayDeque<T> pool,
+                                                              Supplier<T> factory) {
+        final T ctx;
+        synchronized (pool) {
+            ctx = pool.pollLast();
+        }
+        return ctx != null ? ctx : factory.get();
+    }
+
+    /**
+     * Returns a context to its pool, or closes it if the pool is full.
+     */
+    private static <T extends AutoCloseable> void releaseContext(ArrayDeque<T> pool, T ctx) {
+        synchronized (pool) {
+            if (pool.size() < MAX_POOLED_CONTEXTS) {
+                pool.addLast(ctx);
+                return;
+            }
+        }
+        try {
+            ctx.close();
+        } catch (Exception e) {
+            // the contexts of zstd-jni do not throw on close
         }
-        return ByteBuffer.wrap(compressed);
     }
 
     @Override
     public long computeEncodedSize(long inputByteLength,
-                                   ArrayMetadata.CoreArrayMetadata arrayMetadata) throws ZarrException {
-        throw new ZarrException("Not implemented for Zstd codec.");
+                                   ArrayMetadata.CoreArrayMetadata arrayMetadata) {
+        return Zstd.compressBound(inputByteLength);
+    }
+
+    @Override
+    protected boolean hasFixedEncodedSize() {
+        return false;
     }
 
     public static final class Configuration {
@@ -1,14 +1,26 @@
 package dev.zarr.zarrjava;
 
 
-import org.junit.Test;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.StreamSupport;
+import java.util.zip.Checksum;
+
+import dev.zarr.zarrjava.utils.BufferPool;
+import dev.zarr.zarrjava.utils.ByteRangeUtils;
+import dev.zarr.zarrjava.utils.CRC32C;
+import dev.zarr.zarrjava.utils.IndexingUtils;
 
 import static dev.zarr.zarrjava.utils.Utils.inversePermutation;
 import static dev.zarr.zarrjava.utils.Utils.isPermutation;
-import static org.junit.Assert.assertFalse;
 
 public class TestUtils {
     @Test
@@ -28,5 +40,247 @@ public class TestUtils {
         Assertions.assertFalse(Arrays.equals(new int[]{2, 0, 1}, inversePermutation(new int[]{2, 0, 1})));
     }
 
-}
+    @Test
+    public void testCoalesceByteRanges(){
+        List<ByteRangeUtils.CoalescedRange> ranges = ByteRangeUtils.coalesce(
+            new long[]{100, 0, 10, 1000}, new long[]{10, 10, 10, 10}, 80, 1000);
+        Assertions.assertEquals(2, ranges.size());
+        Assertions.assertEquals(0, ranges.get(0).start);
+        Assertions.assertEquals(110, ranges.get(0).end());
+        Assertions.assertArrayEquals(new int[]{1, 2, 0}, ranges.get(0).members());
+        Assertions.assertEquals(1000, ranges.get(1).start);
+        Assertions.assertArrayEquals(new int[]{3}, ranges.get(1).members());
+
+        Assertions.assertEquals(3, ByteRangeUtils.coalesce(
+            new long[]{100, 0, 10, 1000}, new long[]{10, 10, 10, 10}, 0, 1000).size());
+        Assertions.assertEquals(3, ByteRangeUtils.coalesce(
+            new long[]{100, 0, 10, 1000}, new long[]{10, 10, 10, 10}, 80, 50).size());
+
+        // gaps of exactly maxGap are merged, larger gaps are not
+        Assertions.assertEquals(1, ByteRangeUtils.coalesce(
+            new long[]{0, 20}, new long[]{10, 10}, 10, 1000).size());
+        Assertions.assertEquals(2, ByteRangeUtils.coalesce(
+            new long[]{0, 21}, new long[]{10, 10}, 10, 1000).size());
+        // a maxGap of -1 keeps adjacent ranges apart
+        Assertions.assertEquals(2, ByteRangeUtils.coalesce(
+            new long[]{0, 10}, new long[]{10, 10}, -1, 1000).size());
+
+        // merged ranges may be exactly maxRangeLength long
+        Assertions.assertEquals(1, ByteRangeUtils.coalesce(
+            new long[]{0, 20}, new long[]{10, 10}, 10, 30).size());
+        Assertions.assertEquals(2, ByteRangeUtils.coalesce(
+            new long[]{0, 20}, new long[]{10, 10}, 10, 29).size());
+        // ranges that exceed maxRangeLength by themselves are kept
+        ranges = ByteRangeUtils.coalesce(new long[]{0, 10, 200}, new long[]{10, 100, 10}, 10, 50);
+        Assertions.assertEquals(3, ranges.size());
+        Assertions.assertEquals(100, ranges.get(1).length());
+
+        // overlapping, contained and duplicate ranges are covered by a single range
+        ranges = ByteRangeUtils.coalesce(
+            new long[]{50, 0, 5, 20, 20}, new long[]{10, 30, 10, 20, 20}, 0, 1000);
+        Assertions.assertEquals(2, ranges.size());
+        Assertions.assertEquals(0, ranges.get(0).start);
+        Assertions.assertEquals(40, ranges.get(0).end());
+        Assertions.assertArrayEquals(new int[]{1, 2, 3, 4}, ranges.get(0).members());
+        Assertions.assertEquals(50, ranges.get(1).start);
+        Assertions.assertArrayEquals(new int[]{0}, ranges.get(1).members());
+
+        // members are tracked beyond the initial capacity
+        long[] starts = new long[10];
+        long[] lengths = new long[10];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = 9 - i;
+            lengths[i] = 1;
+        }
+        ranges = ByteRangeUtils.coalesce(starts, lengths, 0, 1000);
+        Assertions.assertEquals(1, ranges.size());
+        Assertions.assertArrayEquals(new int[]{9, 8, 7, 6, 5, 4, 3, 2, 1, 0}, ranges.get(0).members());
+
+        Assertions.assertTrue(ByteRangeUtils.coalesce(new long[0], new long[0], 10, 1000).isEmpty());
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> ByteRangeUtils.coalesce(new long[1], new long[2], 10, 1000));
+
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{0, 1, 2, 3, 4, 5});
+        Assertions.assertEquals(3, ByteRangeUtils.slice(buffer, 2, 3).get(1));
+        Assertions.assertNull(ByteRangeUtils.slice(buffer, 4, 3));
+        Assertions.assertNull(ByteRangeUtils.slice(buffer, -1, 3));
+        Assertions.assertEquals(0, ByteRangeUtils.slice(buffer, 6, 0).remaining());
+        buffer.position(2);
+        Assertions.assertEquals(5, ByteRangeUtils.slice(buffer, 3, 1).get(0));
+        Assertions.assertNull(ByteRangeUtils.slice(buffer, 3, 2));
+    }
+
+    @Test
+    public void testBufferPool(){
+        BufferPool bufferPool = new BufferPool(1024 * 1024);
+        ByteBuffer buffer = bufferPool.acquire(100 * 1024);
+        Assertions.assertEquals(128 * 1024, buffer.capacity());
+        Assertions.assertEquals(100 * 1024, buffer.limit());
+        Assertions.assertEquals(128 * 1024, bufferPool.getInUseBytes());
+        bufferPool.release(buffer);
+        Assertions.assertEquals(0, bufferPool.getInUseBytes());
+        Assertions.assertEquals(128 * 1024, bufferPool.getPooledBytes());
+
+        Assertions.assertSame(buffer, bufferPool.acquire(120 * 1024));
+        Assertions.assertEquals(1, bufferPool.getHitCount());
+        Assertions.assertEquals(1, bufferPool.getMissCount());
+        ByteBuffer directBuffer = bufferPool.acquireDirect(100 * 1024);
+        Assertions.assertTrue(directBuffer.isDirect());
+        Assertions.assertEquals(2, bufferPool.getMissCount());
+        bufferPool.release(directBuffer);
+        bufferPool.release(buffer);
+
+        // buffers that exceed the pool size are not retained
+        bufferPool.release(bufferPool.acquire(2 * 1024 * 1024));
+        Assertions.assertEquals(2 * 128 * 1024, bufferPool.getPooledBytes());
+        // small buffers are not pooled
+        Assertions.assertEquals(100, bufferPool.acquire(100).capacity());
+
+        // buffers the pool did not hand out, and repeated releases, are ignored
+        ByteBuffer borrowed = bufferPool.acquire(128 * 1024);
+        Assertions.assertEquals(128 * 1024, bufferPool.getInUseBytes());
+        bufferPool.release(ByteBuffer.allocate(128 * 1024));
+        bufferPool.release(ByteBuffer.allocateDirect(128 * 1024));
+        bufferPool.release(borrowed.duplicate());
+        Assertions.assertEquals(128 * 1024, bufferPool.getInUseBytes());
+        Assertions.assertEquals(128 * 1024, bufferPool.getPooledBytes());
+        bufferPool.release(borrowed);
+        bufferPool.release(borrowed);
+        Assertions.assertEquals(0, bufferPool.getInUseBytes());
+        Assertions.assertEquals(2 * 128 * 1024, bufferPool.getPooledBytes());
+        ByteBuffer first = bufferPool.acquire(128 * 1024);
+        ByteBuffer second = bufferPool.acquire(128 * 1024);
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals(2 * 128 * 1024, bufferPool.getInUseBytes());
+        bufferPool.release(first);
+        bufferPool.release(second);
+        Assertions.assertEquals(0, bufferPool.getInUseBytes());
+    }
+
+    @Test
+    public void testCRC32C(){
+        byte[] check = "123456789".getBytes(StandardCharsets.US_ASCII);
+        CRC32C crc32c = new CRC32C();
+        crc32c.update(check, 0, check.length);
+        Assertions.assertEquals(0xE3069283L, crc32c.getValue());
+        Assertions.assertEquals(0xE3069283L, CRC32C.computeTableDriven(ByteBuffer.wrap(check)));
+        Assertions.assertEquals(0x8A9136AAL, CRC32C.computeTableDriven(ByteBuffer.allocate(32)));
+
+        byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31 + 7);
+        }
+        for (int offset : new int[]{0, 1, 5}) {
+            for (int length : new int[]{0, 7, 8, 9, 100, 990}) {
+                ByteBuffer heapBuffer = ByteBuffer.wrap(data, offset, length).slice();
+                ByteBuffer directBuffer = ByteBuffer.allocateDirect(length);
+                directBuffer.put(heapBuffer.duplicate()).flip();
+                long expected = CRC32C.computeTableDriven(heapBuffer);
+                Assertions.assertEquals(expected, CRC32C.computeTableDriven(directBuffer));
+
+                crc32c.reset();
+                crc32c.update(heapBuffer);
+                Assertions.assertEquals(expected, crc32c.getValue());
+                Assertions.assertFalse(heapBuffer.hasRemaining());
 
+                crc32c.reset();
+                crc32c.update(directBuffer);
+                Assertions.assertEquals(expected, crc32c.getValue());
+                Assertions.assertFalse(directBuffer.hasRemaining());
+
+                crc32c.reset();
+                for (int i = 0; i < length; i++) {
+                    crc32c.update(data[offset + i]);
+                }
+                Assertions.assertEquals(expected, crc32c.getValue());
+            }
+        }
+    }
+
+    @Test
+    public void testCRC32CMatchesJdk() throws Exception {
+        // java.util.zip.CRC32C is only available on Java 9+
+        Class<?> jdkClass;
+        try {
+            jdkClass = Class.forName("java.util.zip.CRC32C");
+        } catch (ClassNotFoundException e) {
+            Assumptions.abort("java.util.zip.CRC32C is not available");
+            return;
+        }
+        Checksum jdkCrc32c = (Checksum) jdkClass.getConstructor().newInstance();
+
+        Random random = new Random(42);
+        byte[] data = new byte[70000];
+        random.nextBytes(data);
+        for (int i = 0; i < 200; i++) {
+            int offset = random.nextInt(64);
+            int length = i < 100 ? i : random.nextInt(data.length - offset);
+            jdkCrc32c.reset();
+            jdkCrc32c.update(data, offset, length);
+            ByteBuffer heapBuffer = ByteBuffer.wrap(data, offset, length);
+            ByteBuffer directBuffer = ByteBuffer.allocateDirect(length);
+            directBuffer.put(heapBuffer.duplicate()).flip();
+            Assertions.assertEquals(jdkCrc32c.getValue(), CRC32C.computeTableDriven(heapBuffer));
+            Assertions.assertEquals(jdkCrc32c.getValue(), CRC32C.computeTableDriven(directBuffer));
+        }
+    }
+
+    @Test
+    public void testIterateChunkCoords(){
+        List<long[]> cOrder = new ArrayList<>();
+        IndexingUtils.iterateChunkCoords(new int[]{4, 4}, new long[]{2, 3}, new long[]{10, 2},
+                IndexingUtils.TraversalOrder.C).forEachRemaining(cOrder::add);
+        Assertions.assertArrayEquals(new long[][]{{0, 0}, {0, 1}, {1, 0}, {1, 1}, {2, 0}, {2, 1}},
+                cOrder.toArray(new long[0][]));
+
+        List<long[]> fOrder = new ArrayList<>();
+        IndexingUtils.iterateChunkCoords(new int[]{4, 4}, new long[]{0, 0}, new long[]{8, 8},
+                IndexingUtils.TraversalOrder.F).forEachRemaining(fOrder::add);
+        Assertions.assertArrayEquals(new long[][]{{0, 0}, {1, 0}, {0, 1}, {1, 1}}, fOrder.toArray(new long[0][]));
+
+        Assertions.assertFalse(IndexingUtils.iterateChunkCoords(new int[]{4, 4}, new long[]{2, 3},
+                new long[]{0, 2}, IndexingUtils.TraversalOrder.C).hasNext());
+    }
+
+    @Test
+    public void testChunkCoordsRange(){
+        for (IndexingUtils.TraversalOrder order : IndexingUtils.TraversalOrder.values()) {
+            IndexingUtils.ChunkCoordsRange range = IndexingUtils.computeChunkCoordsRange(
+                    new int[]{4, 3, 2}, new long[]{5, 0, 3}, new long[]{11, 7, 6}, order);
+            Assertions.assertEquals(3 * 3 * 4, range.size());
+
+            List<long[]> iterated = new ArrayList<>();
+            IndexingUtils.iterateChunkCoords(new int[]{4, 3, 2}, new long[]{5, 0, 3},
+                    new long[]{11, 7, 6}, order).forEachRemaining(iterated::add);
+            Assertions.assertEquals(range.size(), iterated.size());
+            for (int i = 0; i < iterated.size(); i++) {
+                Assertions.assertArrayEquals(iterated.get(i), range.computeChunkCoords(i));
+                Assertions.assertEquals(i, range.computeLinearIndex(iterated.get(i)));
+            }
+
+            // Parallel streams split the spliterator and must still visit every chunk once.
+            long[][] parallel = StreamSupport.stream(range.spliterator(), true)
+                    .map(long[]::clone)
+                    .toArray(long[][]::new);
+            Assertions.assertArrayEquals(iterated.toArray(new long[0][]), parallel);
+        }
+
+        // The linear form does not need to allocate the coordinates of every chunk.
+        IndexingUtils.ChunkCoordsRange largeRange = IndexingUtils.computeChunkCoordsRange(
+                new long[]{1L << 40, 1L << 20}, new int[]{1, 1});
+        Assertions.assertEquals(1L << 60, largeRange.size());
+        Assertions.assertArrayEquals(new long[]{(1L << 40) - 1, (1L << 20) - 1},
+                largeRange.computeChunkCoords(largeRange.size() - 1));
+        Assertions.assertEquals(3, largeRange.linearIndices().limit(3).count());
+
+        // Arrays that are larger than an int along a dimension can still list their chunks.
+        long[][] chunkCoords = IndexingUtils.computeChunkCoords(new long[]{(1L << 40) + 1}, new int[]{1 << 30});
+        Assertions.assertEquals(1025, chunkCoords.length);
+        Assertions.assertArrayEquals(new long[]{1024}, chunkCoords[1024]);
+        Assertions.assertArrayEquals(new long[][]{{0, 0}, {0, 1}, {1, 0}, {1, 1}},
+                IndexingUtils.computeChunkCoords(new int[]{8, 5}, new int[]{4, 4}));
+
+        Assertions.assertEquals(0, IndexingUtils.computeChunkCoordsRange(new int[]{4},
+                new long[]{5}, new long[]{0}, IndexingUtils.TraversalOrder.C).size());
+    }
+}
@@ -6,15 +6,28 @@ import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.luben.zstd.Zstd;
 import com.github.luben.zstd.ZstdCompressCtx;
+import com.sun.net.httpserver.HttpServer;
 import dev.zarr.zarrjava.store.FilesystemStore;
 import dev.zarr.zarrjava.store.HttpStore;
 import dev.zarr.zarrjava.store.S3Store;
+import dev.zarr.zarrjava.store.Store;
 import dev.zarr.zarrjava.store.StoreHandle;
+import dev.zarr.zarrjava.utils.IndexingUtils;
 import dev.zarr.zarrjava.utils.MultiArrayUtils;
+import dev.zarr.zarrjava.utils.Utils;
 import dev.zarr.zarrjava.v3.*;
+import dev.zarr.zarrjava.v3.codec.BytesBytesCodec;
+import dev.zarr.zarrjava.v3.codec.Codec;
 import dev.zarr.zarrjava.v3.codec.CodecBuilder;
+import dev.zarr.zarrjava.v3.codec.CodecPipeline;
+import dev.zarr.zarrjava.v3.codec.core.BloscCodec;
 import dev.zarr.zarrjava.v3.codec.core.BytesCodec;
+import dev.zarr.zarrjava.v3.codec.core.Crc32cCodec;
+import dev.zarr.zarrjava.v3.codec.core.GzipCodec;
+import dev.zarr.zarrjava.v3.codec.core.ShardIndexCache;
+import dev.zarr.zarrjava.v3.codec.core.ShardingIndexedCodec;
 import dev.zarr.zarrjava.v3.codec.core.TransposeCodec;
+import dev.zarr.zarrjava.v3.codec.core.ZstdCodec;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -25,15 +38,24 @@ import org.junit.jupiter.params.provider.ValueSource;
 import ucar.ma2.MAMath;
 
 import java.io.*;
+import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.assertThrows;
@@ -255,6 +277,39 @@ public class ZarrTest {
         assertThrows(ZarrException.class, () -> Array.create(storeHandle, builder.build()));
     }
 
+    static Stream<Function<CodecBuilder, CodecBuilder>> directBufferCodecBuilder() {
+        return Stream.of(
+            c -> c.withBytes(BytesCodec.Endian.LITTLE),
+            c -> c.withZstd(),
+            c -> c.withGzip(),
+            c -> c.withBlosc(),
+            c -> c.withCrc32c()
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("directBufferCodecBuilder")
+    public void testCodecPipelineDirectBuffers(Function<CodecBuilder, CodecBuilder> codecBuilder) throws ZarrException {
+        for (DataType dataType : new DataType[]{DataType.UINT8, DataType.UINT16}) {
+            CodecPipeline codecPipeline = new CodecPipeline(
+                codecBuilder.apply(new CodecBuilder(dataType)).build(),
+                new ArrayMetadata.CoreArrayMetadata(new long[]{16, 16}, new int[]{16, 16}, dataType, 0));
+            ucar.ma2.Array testData = ucar.ma2.Array.factory(dataType.getMA2DataType(), new int[]{16, 16});
+            for (int i = 0; i < testData.getSize(); i++) {
+                testData.setInt(i, i % 200);
+            }
+
+            ByteBuffer encodedBytes = codecPipeline.encode(testData);
+            ByteBuffer directBytes = ByteBuffer.allocateDirect(encodedBytes.remaining() + 8);
+            directBytes.position(8);
+            directBytes.put(encodedBytes);
+            directBytes.position(8);
+            Assertions.assertTrue(MultiArrayUtils.allValuesEqual(testData, codecPipeline.decode(directBytes.slice())));
+            Assertions.assertTrue(MultiArrayUtils.allValuesEqual(testData,
+                codecPipeline.decode(codecPipeline.encode(codecPipeline.decode(directBytes.slice())))));
+        }
+    }
+
     @Test
     public void testLargerChunkSizeThanArraySize() throws ZarrException, IOException {
         int[] testData = new int[16 * 16 * 16];
@@ -349,6 +404,192 @@ public class ZarrTest {
         Assertions.assertArrayEquals(testData, (int[]) result.get1DJavaArray(ucar.ma2.DataType.INT));
     }
 
+    @Test
+    public void testZstdCodecDecodeInto() throws ZarrException {
+        ZstdCodec zstdCodec = new ZstdCodec(new ZstdCodec.Configuration(5, true));
+        byte[] testData = new byte[64 * 1024];
+        Arrays.fill(testData, 1024, 2048, (byte) 42);
+        ByteBuffer compressedBytes = zstdCodec.encode(ByteBuffer.wrap(testData));
+        Assertions.assertEquals(testData.length, zstdCodec.computeDecodedSize(compressedBytes));
+
+        for (ByteBuffer output : new ByteBuffer[]{
+            ByteBuffer.allocate(testData.length + 16), ByteBuffer.allocateDirect(testData.length + 16)}) {
+            output.position(16);
+            Assertions.assertEquals(testData.length, zstdCodec.decodeInto(compressedBytes, output));
+            Assertions.assertEquals(testData.length + 16, output.position());
+            output.position(16);
+            Assertions.assertEquals(ByteBuffer.wrap(testData), output);
+        }
+        Assertions.assertThrows(ZarrException.class,
+            () -> zstdCodec.decodeInto(compressedBytes, ByteBuffer.allocate(1024)));
+    }
+
+    @Test
+    public void testZstdCodecConcurrent() throws Exception {
+        // More threads than pooled contexts, so that surplus contexts are closed on release.
+        int threadCount = 4 * Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                final int level = t % 2 == 0 ? 1 : 9;
+                final byte fillValue = (byte) t;
+                futures.add(executor.submit(() -> {
+                    ZstdCodec zstdCodec = new ZstdCodec(new ZstdCodec.Configuration(level, level > 1));
+                    byte[] testData = new byte[32 * 1024];
+                    for (int i = 0; i < 20; i++) {
+                        Arrays.fill(testData, 0, 1024 * (i + 1), fillValue);
+                        ByteBuffer compressedBytes = zstdCodec.encode(ByteBuffer.wrap(testData));
+                        Assertions.assertEquals(ByteBuffer.wrap(testData), zstdCodec.decode(compressedBytes));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBloscCodecThreads() throws ZarrException, IOException {
+        byte[] testData = new byte[4 * 1024 * 1024];
+        for (int i = 0; i < testData.length; i++) {
+            testData[i] = (byte) (i / 1024 + i % 7);
+        }
+        BloscCodec bloscCodec = (BloscCodec) new CodecBuilder(DataType.UINT8).withBlosc().build()[1];
+        ByteBuffer singleThreadedBytes = bloscCodec.encode(ByteBuffer.wrap(testData));
+        bloscCodec.setNumThreads(4);
+        Assertions.assertEquals(4, bloscCodec.getNumThreads());
+        ByteBuffer multiThreadedBytes = bloscCodec.encode(ByteBuffer.wrap(testData));
+        Assertions.assertEquals(ByteBuffer.wrap(testData), bloscCodec.decode(singleThreadedBytes));
+        Assertions.assertEquals(ByteBuffer.wrap(testData), bloscCodec.decode(multiThreadedBytes));
+
+        // the number of threads is a runtime setting and not part of the metadata
+        Assertions.assertFalse(Node.makeObjectMapper().writeValueAsString(bloscCodec).toLowerCase().contains("thread"));
+        bloscCodec.setNumThreads(0);
+        Assertions.assertEquals(BloscCodec.getDefaultNumThreads(), bloscCodec.getNumThreads());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BloscCodec.setDefaultNumThreads(0));
+    }
+
+    @Test
+    public void testGzipCodecLevels() throws ZarrException, IOException {
+        byte[] testData = new byte[64 * 1024];
+        for (int i = 0; i < testData.length; i++) {
+            testData[i] = (byte) (i / 256);
+        }
+        ByteBuffer storedBytes = new GzipCodec(new GzipCodec.Configuration(0)).encode(ByteBuffer.wrap(testData));
+        ByteBuffer compressedBytes = new GzipCodec(new GzipCodec.Configuration(9)).encode(ByteBuffer.wrap(testData));
+        Assertions.assertTrue(storedBytes.remaining() > testData.length);
+        Assertions.assertTrue(compressedBytes.remaining() < testData.length / 10);
+
+        // compatible with the JDK's gzip streams in both directions
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (java.util.zip.GZIPInputStream inputStream = new java.util.zip.GZIPInputStream(
+            new ByteArrayInputStream(Utils.toArray(compressedBytes.duplicate())))) {
+            byte[] buffer = new byte[4096];
+            int len;
+            while ((len = inputStream.read(buffer)) > 0) {
+                outputStream.write(buffer, 0, len);
+            }
+        }
+        Assertions.assertArrayEquals(testData, outputStream.toByteArray());
+        outputStream = new ByteArrayOutputStream();
+        try (java.util.zip.GZIPOutputStream gzipStream = new java.util.zip.GZIPOutputStream(outputStream)) {
+            gzipStream.write(testData);
+        }
+        Assertions.assertEquals(ByteBuffer.wrap(testData),
+            new GzipCodec(new GzipCodec.Configuration(5)).decode(ByteBuffer.wrap(outputStream.toByteArray())));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"little", "big"})
+    public void testBytesCodecDataTypes(String endian) throws ZarrException, ucar.ma2.InvalidRangeException {
+        BytesCodec.Endian bytesEndian = endian.equals("little") ? BytesCodec.Endian.LITTLE : BytesCodec.Endian.BIG;
+        for (DataType dataType : new DataType[]{DataType.BOOL, DataType.INT8, DataType.INT16, DataType.UINT16,
+            DataType.INT32, DataType.UINT32, DataType.INT64, DataType.UINT64, DataType.FLOAT32, DataType.FLOAT64}) {
+            ArrayMetadata.CoreArrayMetadata arrayMetadata = new ArrayMetadata.CoreArrayMetadata(
+                new long[]{6, 7}, new int[]{6, 7}, dataType, 0);
+            CodecPipeline codecPipeline = new CodecPipeline(
+                new Codec[]{new BytesCodec(bytesEndian)}, arrayMetadata);
+            ucar.ma2.Array testData = ucar.ma2.Array.factory(dataType.getMA2DataType(), new int[]{6, 7});
+            for (int i = 0; i < testData.getSize(); i++) {
+                testData.setInt(i, dataType == DataType.BOOL ? i % 2 : i * 3 - 5);
+            }
+
+            ByteBuffer encodedBytes = codecPipeline.encode(testData);
+            Assertions.assertEquals(testData.getDataAsByteBuffer(bytesEndian.getByteOrder()), encodedBytes);
+            Assertions.assertTrue(MultiArrayUtils.allValuesEqual(testData, codecPipeline.decode(encodedBytes)));
+            // views of a larger array and buffers with an offset
+            ucar.ma2.Array section = testData.section(new int[]{1, 2}, new int[]{4, 4});
+            Assertions.assertEquals(section.getDataAsByteBuffer(bytesEndian.getByteOrder()),
+                new CodecPipeline(new Codec[]{new BytesCodec(bytesEndian)}, new ArrayMetadata.CoreArrayMetadata(
+                    new long[]{4, 4}, new int[]{4, 4}, dataType, 0)).encode(section));
+            ByteBuffer offsetBytes = ByteBuffer.allocate(encodedBytes.remaining() + 3);
+            offsetBytes.position(3);
+            offsetBytes.put(encodedBytes.duplicate());
+            offsetBytes.position(3);
+            Assertions.assertTrue(MultiArrayUtils.allValuesEqual(testData, codecPipeline.decode(offsetBytes.slice())));
+
+            // the bytes codec serializes into pooled scratch memory that the compressor reads in place
+            ZstdCodec zstdCodec = new ZstdCodec(new ZstdCodec.Configuration(5, true));
+            CodecPipeline fusedPipeline = new CodecPipeline(
+                new Codec[]{new BytesCodec(bytesEndian), zstdCodec}, arrayMetadata);
+            ByteBuffer compressedBytes = fusedPipeline.encode(testData);
+            Assertions.assertEquals(encodedBytes, zstdCodec.decode(compressedBytes));
+            Assertions.assertTrue(MultiArrayUtils.allValuesEqual(testData, fusedPipeline.decode(compressedBytes)));
+            CodecPipeline crc32cPipeline = new CodecPipeline(
+                new Codec[]{new BytesCodec(bytesEndian), new Crc32cCodec()}, new ArrayMetadata.CoreArrayMetadata(
+                    new long[]{4, 4}, new int[]{4, 4}, dataType, 0));
+            ByteBuffer checksummedBytes = crc32cPipeline.encode(section);
+            Assertions.assertEquals(section.getDataAsByteBuffer(bytesEndian.getByteOrder()),
+                ByteBuffer.wrap(Utils.toArray(checksummedBytes.duplicate()), 0, checksummedBytes.remaining() - 4));
+            Assertions.assertTrue(MultiArrayUtils.allValuesEqual(section, crc32cPipeline.decode(checksummedBytes)));
+        }
+    }
+
+    @Test
+    public void testCodecEncodedAndDecodedSizes() throws ZarrException {
+        byte[] testData = new byte[64 * 1024];
+        new java.util.Random(42).nextBytes(testData);
+        ucar.ma2.Array testArray = ucar.ma2.Array.factory(ucar.ma2.DataType.UBYTE, new int[]{testData.length}, testData);
+        ArrayMetadata.CoreArrayMetadata arrayMetadata = new ArrayMetadata.CoreArrayMetadata(
+            new long[]{testData.length}, new int[]{testData.length}, DataType.UINT8, 0);
+
+        for (Codec[] codecs : new Codec[][]{
+            new CodecBuilder(DataType.UINT8).withZstd().build(),
+            new CodecBuilder(DataType.UINT8).withGzip().build(),
+            new CodecBuilder(DataType.UINT8).withBlosc().build(),
+            new CodecBuilder(DataType.UINT8).withCrc32c().build()}) {
+            CodecPipeline codecPipeline = new CodecPipeline(codecs, arrayMetadata);
+            BytesBytesCodec codec = (BytesBytesCodec) codecs[1];
+            ByteBuffer encodedBytes = codecPipeline.encode(testArray);
+            // random data is incompressible, so this checks the worst case of the bounds
+            Assertions.assertTrue(encodedBytes.remaining() <= codecPipeline.computeEncodedSize(testData.length, arrayMetadata));
+            long decodedSize = codec.computeDecodedSize(encodedBytes);
+            Assertions.assertTrue(decodedSize == -1 || decodedSize == testData.length);
+
+            ByteBuffer output = ByteBuffer.allocate(testData.length + 16);
+            output.position(16);
+            Assertions.assertEquals(testData.length, codec.decodeInto(encodedBytes, output));
+            output.position(16);
+            Assertions.assertEquals(ByteBuffer.wrap(testData), output);
+            Assertions.assertThrows(ZarrException.class,
+                () -> codec.decodeInto(encodedBytes, ByteBuffer.allocate(testData.length - 1)));
+            Assertions.assertTrue(MultiArrayUtils.allValuesEqual(testArray, codecPipeline.decode(encodedBytes)));
+        }
+
+        // the shard index has to be located without decoding it
+        Assertions.assertThrows(ZarrException.class, () -> new CodecPipeline(
+            new Codec[]{new ShardingIndexedCodec(new ShardingIndexedCodec.Configuration(new int[]{64},
+                new Codec[]{new BytesCodec(BytesCodec.Endian.LITTLE)},
+                new CodecBuilder(DataType.UINT64).withZstd().build(),
+                "end"))},
+            new ArrayMetadata.CoreArrayMetadata(new long[]{1024}, new int[]{256}, DataType.UINT8, 0)));
+    }
+
     @Test
     public void testTransposeCodec() throws ZarrException {
         ucar.ma2.Array testData = ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{2, 3, 3}, new int[]{
@@ -367,6 +608,112 @@ public class ZarrTest {
         assert MAMath.equals(testData, transposeCodec.decode(testDataTransposed120));
     }
 
+    @Test
+    public void testTransposeContiguous() throws ucar.ma2.InvalidRangeException {
+        int[][] orders = new int[][]{{1, 0, 2}, {2, 1, 0}, {1, 2, 0}, {2, 0, 1}, {0, 2, 1}, {0, 1, 2}};
+        for (ucar.ma2.DataType dataType : new ucar.ma2.DataType[]{ucar.ma2.DataType.BYTE, ucar.ma2.DataType.SHORT,
+            ucar.ma2.DataType.UINT, ucar.ma2.DataType.LONG, ucar.ma2.DataType.FLOAT, ucar.ma2.DataType.DOUBLE,
+            ucar.ma2.DataType.BOOLEAN}) {
+            ucar.ma2.Array source = ucar.ma2.Array.factory(dataType, new int[]{5, 70, 37});
+            for (int i = 0; i < source.getSize(); i++) {
+                if (dataType == ucar.ma2.DataType.BOOLEAN) {
+                    source.setBoolean(i, i % 3 == 0);
+                } else {
+                    source.setInt(i, i % 120);
+                }
+            }
+            ucar.ma2.Array[] views = new ucar.ma2.Array[]{
+                source,
+                source.section(new int[]{1, 3, 2}, new int[]{3, 60, 33}),
+                source.flip(2),
+                source.permute(new int[]{2, 0, 1})
+            };
+            for (ucar.ma2.Array view : views) {
+                for (int[] order : orders) {
+                    ucar.ma2.Array transposed = MultiArrayUtils.transpose(view, order);
+                    Assertions.assertEquals(dataType, transposed.getDataType());
+                    Assertions.assertTrue(MultiArrayUtils.allValuesEqual(view.permute(order), transposed));
+                }
+            }
+        }
+        // transposing a 2D matrix and back
+        ucar.ma2.Array matrix = ucar.ma2.Array.factory(ucar.ma2.DataType.INT, new int[]{100, 33});
+        for (int i = 0; i < matrix.getSize(); i++) {
+            matrix.setInt(i, i);
+        }
+        ucar.ma2.Array transposed = MultiArrayUtils.transpose(matrix, new int[]{1, 0});
+        Assertions.assertEquals(33, transposed.getInt(1));
+        Assertions.assertTrue(MultiArrayUtils.allValuesEqual(matrix, MultiArrayUtils.transpose(transposed, new int[]{1, 0})));
+    }
+
+    @Test
+    public void testCopyRegionViews() throws ucar.ma2.InvalidRangeException {
+        int[] data = new int[4 * 5 * 6];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i;
+        }
+        ucar.ma2.Array source = ucar.ma2.Array.factory(ucar.ma2.DataType.INT, new int[]{4, 5, 6}, data);
+        ucar.ma2.Array[] views = new ucar.ma2.Array[]{
+            source,
+            source.section(new int[]{1, 1, 2}, new int[]{3, 3, 4}),
+            source.permute(new int[]{2, 0, 1}).section(new int[]{1, 0, 1}, new int[]{4, 4, 3}),
+            source.flip(1).section(new int[]{0, 1, 0}, new int[]{4, 3, 6}),
+            ucar.ma2.Array.factoryConstant(ucar.ma2.DataType.INT, new int[]{4, 5, 6}, new int[]{7})
+        };
+        for (ucar.ma2.Array view : views) {
+            int[] viewShape = view.getShape();
+            int[] regionShape = new int[viewShape.length];
+            int[] sourceOffset = new int[viewShape.length];
+            int[] targetOffset = new int[viewShape.length];
+            for (int dimIdx = 0; dimIdx < viewShape.length; dimIdx++) {
+                regionShape[dimIdx] = viewShape[dimIdx] - 1;
+                sourceOffset[dimIdx] = 1;
+                targetOffset[dimIdx] = dimIdx;
+            }
+            ucar.ma2.Array target = ucar.ma2.Array.factory(ucar.ma2.DataType.INT, new int[]{6, 7, 8});
+            MultiArrayUtils.copyRegion(view, sourceOffset, target, targetOffset, regionShape);
+
+            ucar.ma2.Index viewIndex = view.getIndex();
+            ucar.ma2.Index targetIndex = target.getIndex();
+            for (int i = 0; i < regionShape[0]; i++) {
+                for (int j = 0; j < regionShape[1]; j++) {
+                    for (int k = 0; k < regionShape[2]; k++) {
+                        Assertions.assertEquals(
+                            view.getInt(viewIndex.set(i + 1, j + 1, k + 1)),
+                            target.getInt(targetIndex.set(i, j + 1, k + 2)));
+                    }
+                }
+            }
+            Assertions.assertEquals(0, target.getInt(targetIndex.set(0, 0, 0)));
+            Assertions.assertEquals(0, target.getInt(targetIndex.set(5, 6, 7)));
+        }
+    }
+
+    @Test
+    public void testAllValuesEqualAndFill() throws ucar.ma2.InvalidRangeException {
+        ucar.ma2.Array bytes = MultiArrayUtils.fill(
+            ucar.ma2.Array.factory(ucar.ma2.DataType.UBYTE, new int[]{3, 5, 7}), (byte) -1);
+        Assertions.assertTrue(MultiArrayUtils.allValuesEqual(bytes, (byte) -1));
+        Assertions.assertTrue(MultiArrayUtils.allValuesEqual(bytes.permute(new int[]{2, 0, 1}), (byte) -1));
+        bytes.setByte(bytes.getIndex().set(2, 4, 6), (byte) 0);
+        Assertions.assertFalse(MultiArrayUtils.allValuesEqual(bytes, (byte) -1));
+        Assertions.assertTrue(MultiArrayUtils.allValuesEqual(
+            bytes.section(new int[]{0, 0, 0}, new int[]{3, 5, 6}), (byte) -1));
+
+        ucar.ma2.Array floats = MultiArrayUtils.fill(
+            ucar.ma2.Array.factory(ucar.ma2.DataType.FLOAT, new int[]{4, 4}), Float.NaN);
+        Assertions.assertTrue(MultiArrayUtils.allValuesEqual(floats, Float.NaN));
+        Assertions.assertFalse(MultiArrayUtils.allValuesEqual(floats, 0f));
+        MultiArrayUtils.fill(floats.section(new int[]{1, 1}, new int[]{2, 2}), 0f);
+        Assertions.assertEquals(0f, floats.getFloat(floats.getIndex().set(2, 2)));
+        Assertions.assertTrue(Float.isNaN(floats.getFloat(floats.getIndex().set(3, 3))));
+        Assertions.assertFalse(MultiArrayUtils.allValuesEqual(floats, Float.NaN));
+
+        Assertions.assertTrue(MultiArrayUtils.allValuesEqual(
+            ucar.ma2.Array.factoryConstant(ucar.ma2.DataType.DOUBLE, new int[]{8, 8}, new double[]{Double.NaN}),
+            Double.NaN));
+    }
+
     static Stream<int[]> invalidTransposeOrder() {
         return Stream.of(
             new int[]{1, 0, 0},
@@ -383,11 +730,12 @@ public class ZarrTest {
         long[] shapeLong = new long[]{2, 3, 3};
 
         TransposeCodec transposeCodec = new TransposeCodec(new TransposeCodec.Configuration(transposeOrder));
-        transposeCodec.setCoreArrayMetadata(new ArrayMetadata.CoreArrayMetadata(
+        // the order is validated once the codec is set up for an array, before any chunk is coded
+        assertThrows(ZarrException.class, () -> transposeCodec.setCoreArrayMetadata(new ArrayMetadata.CoreArrayMetadata(
             shapeLong,
             shapeInt,
             DataType.UINT32,
-            null));
+            null)));
 
         ucar.ma2.Array testData = ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, shapeInt);
         assertThrows(ZarrException.class, () -> transposeCodec.encode(testData));
@@ -421,6 +769,151 @@ public class ZarrTest {
                         .toArray(Node[]::new)));
     }
 
+    @Test
+    public void testFilesystemStoreAsync() throws Exception {
+        StoreHandle storeHandle = new FilesystemStore(TESTOUTPUT).resolve("async_store", "value");
+        storeHandle.setAsync(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5})).get();
+
+        Assertions.assertTrue(storeHandle.existsAsync().get());
+        Assertions.assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, Utils.toArray(storeHandle.readAsync().get()));
+        Assertions.assertArrayEquals(new byte[]{2, 3}, Utils.toArray(storeHandle.readAsync(1, 3).get()));
+        Assertions.assertArrayEquals(new byte[]{4, 5}, Utils.toArray(storeHandle.readAsync(-2).get()));
+
+        storeHandle.deleteAsync().get();
+        Assertions.assertFalse(storeHandle.existsAsync().get());
+        Assertions.assertNull(storeHandle.readAsync().get());
+    }
+
+    @Test
+    public void testHttpStoreMissingKeys() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            boolean isPresent = exchange.getRequestURI().getPath().equals("/present");
+            byte[] body = isPresent ? new byte[]{1, 2, 3} : "not found".getBytes();
+            boolean isHead = exchange.getRequestMethod().equals("HEAD");
+            exchange.sendResponseHeaders(isPresent ? 200 : 404, isHead ? -1 : body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                if (!isHead) {
+                    outputStream.write(body);
+                }
+            }
+        });
+        server.start();
+        try {
+            HttpStore httpStore = new HttpStore("http://127.0.0.1:" + server.getAddress().getPort());
+            Assertions.assertArrayEquals(new byte[]{1, 2, 3}, Utils.toArray(httpStore.resolve("present").readAsync().get()));
+            Assertions.assertNull(httpStore.resolve("missing").readAsync().get());
+            Assertions.assertNull(httpStore.resolve("missing").read());
+            Assertions.assertFalse(httpStore.resolve("missing").existsAsync().get());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testStoreHandleAsyncFallback() throws Exception {
+        FilesystemStore fsStore = new FilesystemStore(TESTOUTPUT);
+        fsStore.set(new String[]{"async_fallback", "value"}, ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        List<String> threadNames = Collections.synchronizedList(new ArrayList<>());
+        // A store without asynchronous methods, whose blocking requests are adapted by StoreHandle.
+        Store blockingStore = new Store() {
+            public boolean exists(String[] keys) {
+                threadNames.add(Thread.currentThread().getName());
+                return fsStore.exists(keys);
+            }
+
+            public ByteBuffer get(String[] keys) {
+                threadNames.add(Thread.currentThread().getName());
+                return fsStore.get(keys);
+            }
+
+            public ByteBuffer get(String[] keys, long start) {
+                return fsStore.get(keys, start);
+            }
+
+            public ByteBuffer get(String[] keys, long start, long end) {
+                return fsStore.get(keys, start, end);
+            }
+
+            public void set(String[] keys, ByteBuffer bytes) {
+                fsStore.set(keys, bytes);
+            }
+
+            public void delete(String[] keys) {
+                fsStore.delete(keys);
+            }
+
+            public StoreHandle resolve(String... keys) {
+                return new StoreHandle(this, keys);
+            }
+        };
+        StoreHandle storeHandle = blockingStore.resolve("async_fallback", "value");
+        Assertions.assertArrayEquals(new byte[]{1, 2, 3}, Utils.toArray(storeHandle.readAsync().get()));
+        Assertions.assertTrue(storeHandle.existsAsync().get());
+        Assertions.assertEquals(2, threadNames.size());
+        for (String threadName : threadNames) {
+            Assertions.assertTrue(threadName.startsWith("zarr-io-"), threadName);
+        }
+    }
+
+    @Test
+    public void testFilesystemStoreMemoryMapping() throws IOException, ZarrException {
+        FilesystemStore store = new FilesystemStore(TESTOUTPUT).withMemoryMapping(4);
+        StoreHandle storeHandle = store.resolve("mmap_store", "value");
+        storeHandle.set(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5}));
+
+        ByteBuffer bytes = storeHandle.read();
+        Assertions.assertTrue(bytes.isReadOnly());
+        Assertions.assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, Utils.toArray(bytes));
+        Assertions.assertArrayEquals(new byte[]{2, 3}, Utils.toArray(storeHandle.read(1, 3)));
+        Assertions.assertArrayEquals(new byte[]{4, 5}, Utils.toArray(storeHandle.read(-2)));
+
+        ByteBuffer oldBytes = storeHandle.read();
+        storeHandle.set(ByteBuffer.wrap(new byte[]{6, 7, 8}));
+        Assertions.assertArrayEquals(new byte[]{6, 7, 8}, Utils.toArray(storeHandle.read()));
+        Assertions.assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, Utils.toArray(oldBytes));
+
+        storeHandle.delete();
+        Assertions.assertNull(storeHandle.read());
+
+        int[] testData = new int[16 * 16];
+        Arrays.setAll(testData, p -> p);
+        Array array = Array.create(store.resolve("mmap_store", "array"), Array.metadataBuilder()
+                .withShape(16, 16)
+                .withDataType(DataType.UINT32)
+                .withChunkShape(16, 16)
+                .withFillValue(0)
+                .withCodecs(c -> c.withSharding(new int[]{4, 4}, c1 -> c1.withBytes("LITTLE").withZstd()))
+                .build());
+        array.write(ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{16, 16}, testData));
+        Assertions.assertArrayEquals(testData, (int[]) array.read().get1DJavaArray(ucar.ma2.DataType.UINT));
+        Assertions.assertEquals(5 * 16 + 6, array.read(new long[]{5, 6}, new int[]{1, 1}).getInt(0));
+    }
+
+    @Test
+    public void testFilesystemStoreMemoryMappingOtherWriters() throws IOException {
+        FilesystemStore store = new FilesystemStore(TESTOUTPUT).withMemoryMapping(4);
+        StoreHandle storeHandle = store.resolve("mmap_other_writers", "value");
+        storeHandle.set(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        Assertions.assertArrayEquals(new byte[]{1, 2, 3}, Utils.toArray(storeHandle.read()));
+
+        // a file that was replaced through another store is mapped again
+        new FilesystemStore(TESTOUTPUT).withMemoryMapping(1).resolve("mmap_other_writers", "value")
+                .set(ByteBuffer.wrap(new byte[]{4, 5, 6, 7}));
+        Assertions.assertArrayEquals(new byte[]{4, 5, 6, 7}, Utils.toArray(storeHandle.read()));
+        Assertions.assertArrayEquals(new byte[]{5, 6}, Utils.toArray(storeHandle.read(1, 3)));
+
+        // temporary files of writes in progress are not listed
+        String[] directoryKeys = new String[]{"mmap_other_writers"};
+        store.set(new String[]{"mmap_other_writers", "other"}, outputStream -> {
+            outputStream.write(1);
+            Assertions.assertEquals(Collections.singletonList("value"),
+                    store.list(directoryKeys).collect(Collectors.toList()));
+        });
+        Assertions.assertEquals(Arrays.asList("other", "value"),
+                store.list(directoryKeys).sorted().collect(Collectors.toList()));
+    }
+
     @Test
     public void testS3Store() throws IOException, ZarrException {
         S3Store s3Store = new S3Store(AmazonS3ClientBuilder.standard()
@@ -438,6 +931,450 @@ public class ZarrTest {
         System.out.println(Array.open(httpStore.resolve("zarr_v3", "l4_sample", "color", "1")));
     }
 
+    @Test
+    public void testParallelReadWrite() throws IOException, ZarrException, InterruptedException {
+        int[] testData = new int[16 * 16 * 16];
+        Arrays.setAll(testData, p -> p);
+
+        StoreHandle storeHandle = new FilesystemStore(TESTOUTPUT).resolve("parallel_read_write");
+        Array writeArray = Array.create(storeHandle, Array.metadataBuilder()
+                .withShape(16, 16, 16)
+                .withDataType(DataType.UINT32)
+                .withChunkShape(2, 4, 8)
+                .withFillValue(0)
+                .withCodecs(c -> c.withZstd())
+                .build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            writeArray.access().withOffset(0, 0, 0).withExecutor(executor).withMaxInFlight(8)
+                    .write(ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{16, 16, 16}, testData));
+
+            ucar.ma2.Array result = Array.open(storeHandle)
+                    .read(new long[]{0, 0, 0}, new int[]{16, 16, 16}, executor, 8);
+            Assertions.assertArrayEquals(testData, (int[]) result.get1DJavaArray(ucar.ma2.DataType.INT));
+
+            ucar.ma2.Array cutout = Array.open(storeHandle)
+                    .read(new long[]{1, 3, 5}, new int[]{5, 6, 7}, ForkJoinPool.commonPool(), 2);
+            Assertions.assertTrue(MultiArrayUtils.allValuesEqual(cutout, Array.open(storeHandle)
+                    .read(new long[]{1, 3, 5}, new int[]{5, 6, 7})));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testChunkCache() throws IOException, ZarrException, ucar.ma2.InvalidRangeException {
+        int[] testData = new int[16 * 16];
+        Arrays.setAll(testData, p -> p);
+
+        StoreHandle storeHandle = new FilesystemStore(TESTOUTPUT).resolve("chunk_cache");
+        Array.create(storeHandle, Array.metadataBuilder()
+                .withShape(16, 16)
+                .withDataType(DataType.UINT32)
+                .withChunkShape(8, 8)
+                .withFillValue(0)
+                .build()
+        ).write(ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{16, 16}, testData));
+
+        // room for 2 chunks with 8 * 8 * 4 bytes each
+        ChunkCache chunkCache = new ChunkCache(2 * 8 * 8 * 4);
+        Array array = Array.open(storeHandle).withChunkCache(chunkCache);
+
+        ucar.ma2.Array firstRead = array.read(new long[]{0, 0}, new int[]{8, 16});
+        Assertions.assertEquals(0, chunkCache.getHitCount());
+        Assertions.assertEquals(2, chunkCache.getMissCount());
+        ucar.ma2.Array secondRead = array.read(new long[]{2, 2}, new int[]{4, 12});
+        Assertions.assertEquals(2, chunkCache.getHitCount());
+        Assertions.assertTrue(MultiArrayUtils.allValuesEqual(
+                firstRead.sectionNoReduce(new int[]{2, 2}, new int[]{4, 12}, null), secondRead));
+
+        array.read(new long[]{8, 0}, new int[]{8, 8});
+        Assertions.assertEquals(1, chunkCache.getEvictionCount());
+        Assertions.assertEquals(2, chunkCache.getEntryCount());
+        Assertions.assertTrue(chunkCache.getSizeBytes() <= chunkCache.getMaxSizeBytes());
+
+        ucar.ma2.Array chunk = array.readChunk(new long[]{1, 0});
+        chunk.setInt(0, 42);
+        array.writeChunk(new long[]{1, 0}, chunk);
+        Assertions.assertEquals(42, array.read(new long[]{8, 0}, new int[]{1, 1}).getInt(0));
+
+        array = array.resize(new long[]{8, 8});
+        Assertions.assertSame(chunkCache, array.getChunkCache());
+        Assertions.assertEquals(0, chunkCache.getEntryCount());
+    }
+
+    @Test
+    public void testChunkCacheSharded() throws IOException, ZarrException {
+        int[] testData = new int[16 * 16];
+        Arrays.setAll(testData, p -> p);
+
+        StoreHandle storeHandle = new FilesystemStore(TESTOUTPUT).resolve("chunk_cache_sharded");
+        Array.create(storeHandle, Array.metadataBuilder()
+                .withShape(16, 16)
+                .withDataType(DataType.UINT32)
+                .withChunkShape(8, 8)
+                .withFillValue(0)
+                .withCodecs(c -> c.withSharding(new int[]{4, 4}))
+                .build()
+        ).write(ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{16, 16}, testData));
+
+        ChunkCache chunkCache = new ChunkCache(1024 * 1024);
+        Array array = Array.open(storeHandle).withChunkCache(chunkCache);
+
+        // partial shard reads neither fill the cache nor count as misses
+        Assertions.assertEquals(8 * 16 + 9, array.read(new long[]{8, 9}, new int[]{2, 2}).getInt(0));
+        Assertions.assertEquals(0, chunkCache.getMissCount());
+        Assertions.assertEquals(0, chunkCache.getEntryCount());
+
+        // full shards are cached and serve later partial reads
+        array.read(new long[]{8, 8}, new int[]{8, 8});
+        Assertions.assertEquals(1, chunkCache.getMissCount());
+        Assertions.assertEquals(1, chunkCache.getEntryCount());
+        Assertions.assertEquals(8 * 16 + 9, array.read(new long[]{8, 9}, new int[]{2, 2}).getInt(0));
+        Assertions.assertEquals(1, chunkCache.getHitCount());
+        Assertions.assertEquals(1, chunkCache.getMissCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void testReadMissingChunks(boolean sharding) throws IOException, ZarrException {
+        StoreHandle storeHandle = new FilesystemStore(TESTOUTPUT).resolve("missing_chunks_" + sharding);
+        ArrayMetadataBuilder builder = Array.metadataBuilder()
+                .withShape(16, 16)
+                .withDataType(DataType.INT16)
+                .withChunkShape(8, 8)
+                .withFillValue(7);
+        if (sharding) {
+            builder = builder.withCodecs(c -> c.withSharding(new int[]{4, 4}));
+        }
+        Array array = Array.create(storeHandle, builder.build());
+        array.write(new long[]{0, 0}, ucar.ma2.Array.factory(ucar.ma2.DataType.SHORT, new int[]{2, 2}));
+
+        ucar.ma2.Array result = array.read(new long[]{1, 1}, new int[]{12, 12});
+        Assertions.assertEquals(0, result.getShort(result.getIndex().set(0, 0)));
+        Assertions.assertEquals(7, result.getShort(result.getIndex().set(0, 1)));
+        Assertions.assertEquals(7, result.getShort(result.getIndex().set(11, 11)));
+        int fillValueCount = 0;
+        for (short value : (short[]) result.get1DJavaArray(ucar.ma2.DataType.SHORT)) {
+            fillValueCount += value == 7 ? 1 : 0;
+        }
+        Assertions.assertEquals(12 * 12 - 1, fillValueCount);
+
+        ucar.ma2.Array missingChunk = array.readChunk(new long[]{1, 1});
+        Assertions.assertTrue(MultiArrayUtils.allValuesEqual(missingChunk, (short) 7));
+        missingChunk.setShort(0, (short) 3);
+        Assertions.assertTrue(MultiArrayUtils.allValuesEqual(array.readChunk(new long[]{1, 1}), (short) 7));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void testStreamChunksAndBlocks(boolean sharding) throws IOException, ZarrException {
+        int[] testData = new int[16 * 16];
+        Arrays.setAll(testData, p -> p);
+
+        StoreHandle storeHandle = new FilesystemStore(TESTOUTPUT).resolve("stream_chunks_" + sharding);
+        ArrayMetadataBuilder builder = Array.metadataBuilder()
+                .withShape(16, 16)
+                .withDataType(DataType.UINT32)
+                .withChunkShape(8, 8)
+                .withFillValue(0);
+        if (sharding) {
+            builder = builder.withCodecs(c -> c.withSharding(new int[]{4, 4}));
+        }
+        Array array = Array.create(storeHandle, builder.build());
+        array.write(ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{16, 16}, testData));
+
+        long[] offset = {2, 3};
+        long[] shape = {13, 11};
+        ucar.ma2.Array expected = array.read(offset, Utils.toIntArray(shape));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (IndexingUtils.TraversalOrder order : IndexingUtils.TraversalOrder.values()) {
+                ucar.ma2.Array assembled = ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, Utils.toIntArray(shape));
+                List<long[]> chunkCoords = new ArrayList<>();
+                try (Stream<Array.ChunkRegion> chunks = array.access().withOffset(offset).withShape(shape)
+                        .withTraversalOrder(order).withExecutor(executor).withPrefetch(2).streamChunks()) {
+                    chunks.forEach(region -> {
+                        chunkCoords.add(region.chunkCoords);
+                        Assertions.assertArrayEquals(region.shape, region.data.getShape());
+                        MultiArrayUtils.copyRegion(region.data, new int[2], assembled,
+                                Utils.toIntArray(region.outOffset), region.shape);
+                    });
+                }
+                Assertions.assertTrue(MultiArrayUtils.allValuesEqual(expected, assembled));
+                Assertions.assertArrayEquals(new long[]{0, 0}, chunkCoords.get(0));
+                Assertions.assertArrayEquals(order == IndexingUtils.TraversalOrder.C
+                        ? new long[]{0, 1} : new long[]{1, 0}, chunkCoords.get(1));
+                Assertions.assertEquals(4, chunkCoords.size());
+            }
+
+            ucar.ma2.Array assembled = ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, Utils.toIntArray(shape));
+            List<long[]> blockCoords = new ArrayList<>();
+            try (Stream<Array.Block> blocks = array.streamBlocks(offset, shape, new int[]{5, 5},
+                    IndexingUtils.TraversalOrder.C, executor, 3)) {
+                blocks.forEach(block -> {
+                    blockCoords.add(block.blockCoords);
+                    MultiArrayUtils.copyRegion(block.data, new int[2], assembled,
+                            new int[]{(int) (block.offset[0] - offset[0]), (int) (block.offset[1] - offset[1])},
+                            block.data.getShape());
+                });
+            }
+            Assertions.assertTrue(MultiArrayUtils.allValuesEqual(expected, assembled));
+            Assertions.assertEquals(9, blockCoords.size());
+            Assertions.assertArrayEquals(new long[]{2, 2}, blockCoords.get(8));
+        } finally {
+            executor.shutdown();
+        }
+
+        try (Stream<Array.ChunkRegion> chunks = array.streamChunks(new long[]{8, 8}, new long[]{8, 8})) {
+            Array.ChunkRegion region = chunks.findFirst().get();
+            Assertions.assertArrayEquals(new long[]{1, 1}, region.chunkCoords);
+            Assertions.assertEquals(8 * 16 + 8, region.data.getInt(0));
+        }
+        assertThrows(ZarrException.class, () -> array.streamChunks(new long[]{10, 0}, new long[]{7, 1}));
+    }
+
+    @Test
+    public void testStreamChunksLargerThanInt() throws IOException, ZarrException {
+        long size = 3L * Integer.MAX_VALUE;
+        StoreHandle storeHandle = new FilesystemStore(TESTOUTPUT).resolve("stream_chunks_large");
+        Array array = Array.create(storeHandle, Array.metadataBuilder()
+                .withShape(size)
+                .withDataType(DataType.UINT8)
+                .withChunkShape(1 << 20)
+                .withFillValue(3)
+                .build());
+        array.write(new long[]{size - 16}, ucar.ma2.Array.factory(ucar.ma2.DataType.UBYTE, new int[]{16},
+                new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15}));
+
+        Array.ArrayAccessor accessor = array.access().withOffset(8).withShape(size - 8);
+        try (Stream<Array.ChunkRegion> chunks = accessor.streamChunks()) {
+            Array.ChunkRegion region = chunks.findFirst().get();
+            Assertions.assertArrayEquals(new long[]{0}, region.chunkCoords);
+            Assertions.assertArrayEquals(new int[]{(1 << 20) - 8}, region.shape);
+            Assertions.assertEquals(3, region.data.getByte(0));
+        }
+        try (Stream<Array.ChunkRegion> chunks = array.access().withOffset(size - 16).withShape(16L)
+                .streamChunks()) {
+            Assertions.assertEquals(15, chunks.findFirst().get().data.getByte(15));
+        }
+        try (Stream<Array.Block> blocks = array.access().withOffset(size - 20).withShape(20L)
+                .streamBlocks(8)) {
+            List<Array.Block> blockList = blocks.collect(Collectors.toList());
+            Assertions.assertEquals(3, blockList.size());
+            Assertions.assertArrayEquals(new long[]{size - 4}, blockList.get(2).offset);
+            Assertions.assertEquals(4, blockList.get(2).data.getSize());
+            Assertions.assertEquals(12, blockList.get(2).data.getByte(0));
+        }
+        try (Stream<Array.Block> blocks = accessor.streamBlocks(16)) {
+            Array.Block block = blocks.findFirst().get();
+            Assertions.assertArrayEquals(new long[]{8}, block.offset);
+            Assertions.assertEquals(3, block.data.getByte(15));
+        }
+        assertThrows(ZarrException.class, accessor::read);
+    }
+
+    @Test
+    public void testComputeProjection() {
+        // The selection starts before and ends after the middle chunk.
+        IndexingUtils.ChunkProjection projection = IndexingUtils.computeProjection(new long[]{1},
+                new long[]{16}, new int[]{4}, new long[]{2}, new int[]{10});
+        Assertions.assertArrayEquals(new int[]{0}, projection.chunkOffset);
+        Assertions.assertArrayEquals(new int[]{2}, projection.outOffset);
+        Assertions.assertArrayEquals(new int[]{4}, projection.shape);
+
+        projection = IndexingUtils.computeProjection(new long[]{0}, new long[]{16}, new int[]{4},
+                new long[]{2}, new int[]{10});
+        Assertions.assertArrayEquals(new int[]{2}, projection.chunkOffset);
+        Assertions.assertArrayEquals(new int[]{0}, projection.outOffset);
+        Assertions.assertArrayEquals(new int[]{2}, projection.shape);
+
+        projection = IndexingUtils.computeProjection(new long[]{2}, new long[]{16}, new int[]{4},
+                new long[]{2}, new int[]{10});
+        Assertions.assertArrayEquals(new int[]{0}, projection.chunkOffset);
+        Assertions.assertArrayEquals(new int[]{6}, projection.outOffset);
+        Assertions.assertArrayEquals(new int[]{4}, projection.shape);
+
+        // The selection starts before the last chunk, which is cut off by the array shape.
+        projection = IndexingUtils.computeProjection(new long[]{3}, new long[]{14}, new int[]{4},
+                new long[]{2}, new int[]{12});
+        Assertions.assertArrayEquals(new int[]{10}, projection.outOffset);
+        Assertions.assertArrayEquals(new int[]{2}, projection.shape);
+    }
+
+    @Test
+    public void testReadAcrossUnalignedChunks() throws IOException, ZarrException {
+        int[] testData = new int[16 * 16];
+        Arrays.setAll(testData, p -> p);
+
+        StoreHandle storeHandle = new FilesystemStore(TESTOUTPUT).resolve("read_unaligned_chunks");
+        Array array = Array.create(storeHandle, Array.metadataBuilder()
+                .withShape(16, 16)
+                .withDataType(DataType.UINT32)
+                .withChunkShape(4, 4)
+                .withFillValue(0)
+                .build());
+        array.write(ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{16, 16}, testData));
+
+        // The region covers the middle chunks completely and the outer chunks partially.
+        ucar.ma2.Array result = array.read(new long[]{2, 1}, new int[]{13, 14});
+        for (int i = 0; i < 13; i++) {
+            for (int j = 0; j < 14; j++) {
+                Assertions.assertEquals((2 + i) * 16 + 1 + j, result.getInt(result.getIndex().set(i, j)));
+            }
+        }
+    }
+
+    @Test
+    public void testShardIndexCache() throws IOException, ZarrException {
+        int[] testData = new int[16 * 16];
+        Arrays.setAll(testData, p -> p);
+
+        StoreHandle storeHandle = new FilesystemStore(TESTOUTPUT).resolve("shard_index_cache");
+        Array array = Array.create(storeHandle, Array.metadataBuilder()
+                .withShape(16, 16)
+                .withDataType(DataType.UINT32)
+                .withChunkShape(8, 8)
+                .withFillValue(0)
+                .withCodecs(c -> c.withSharding(new int[]{4, 4}, c1 -> c1.withBytes("LITTLE")))
+                .build());
+        array.write(ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{16, 16}, testData));
+
+        ShardIndexCache shardIndexCache = ((ShardingIndexedCodec) array.metadata.codecs[0]).getShardIndexCache();
+        Assertions.assertEquals(0, shardIndexCache.getMaxSizeBytes());
+        array.withShardIndexCache(1024 * 1024);
+        Assertions.assertEquals(1024 * 1024, shardIndexCache.getMaxSizeBytes());
+        Assertions.assertEquals(0, shardIndexCache.getEntryCount());
+
+        Assertions.assertEquals(0, array.read(new long[]{0, 0}, new int[]{2, 2}).getInt(0));
+        Assertions.assertEquals(1, shardIndexCache.getMissCount());
+        Assertions.assertEquals(4 * 16 + 4, array.read(new long[]{4, 4}, new int[]{2, 2}).getInt(0));
+        Assertions.assertEquals(1, shardIndexCache.getHitCount());
+        Assertions.assertEquals(1, shardIndexCache.getEntryCount());
+
+        array.write(new long[]{0, 0}, ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{8, 8}));
+        Assertions.assertEquals(0, shardIndexCache.getEntryCount());
+        Assertions.assertEquals(0, array.read(new long[]{4, 4}, new int[]{2, 2}).getInt(0));
+    }
+
+    @Test
+    public void testShardWrittenByOtherArray() throws IOException, ZarrException {
+        int[] testData = new int[16 * 16];
+        Arrays.setAll(testData, p -> p);
+
+        StoreHandle storeHandle = new FilesystemStore(TESTOUTPUT).resolve("shard_written_by_other_array");
+        Array.create(storeHandle, Array.metadataBuilder()
+                .withShape(16, 16)
+                .withDataType(DataType.UINT32)
+                .withChunkShape(8, 8)
+                .withFillValue(0)
+                .withCodecs(c -> c.withSharding(new int[]{4, 4}, c1 -> c1.withBytes("LITTLE").withZstd()))
+                .build()
+        ).write(ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{16, 16}, testData));
+
+        Array reader = Array.open(storeHandle);
+        Assertions.assertEquals(4 * 16 + 4, reader.read(new long[]{4, 4}, new int[]{2, 2}).getInt(0));
+
+        // The second instance changes the sizes of the inner chunks, which moves their byte ranges.
+        int[] otherData = new int[8 * 8];
+        Arrays.setAll(otherData, p -> p * 7919 + 13);
+        Array writer = Array.open(storeHandle);
+        writer.write(new long[]{0, 0}, ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{8, 8}, otherData));
+
+        ucar.ma2.Array result = reader.read(new long[]{4, 4}, new int[]{2, 2});
+        Assertions.assertEquals(otherData[4 * 8 + 4], result.getInt(0));
+        Assertions.assertEquals(otherData[5 * 8 + 5], result.getInt(3));
+    }
+
+    @Test
+    public void testShardingParallelDecode() throws IOException, ZarrException {
+        int[] testData = new int[16 * 16];
+        Arrays.setAll(testData, p -> p);
+
+        StoreHandle storeHandle = new FilesystemStore(TESTOUTPUT).resolve("sharding_parallel_decode");
+        Array array = Array.create(storeHandle, Array.metadataBuilder()
+                .withShape(16, 16)
+                .withDataType(DataType.UINT32)
+                .withChunkShape(16, 16)
+                .withFillValue(0)
+                .withCodecs(c -> c.withSharding(new int[]{2, 2}, c1 -> c1.withBytes("LITTLE").withZstd()))
+                .build());
+        array.write(ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{16, 16}, testData));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ((ShardingIndexedCodec) array.metadata.codecs[0]).setParallelDecode(pool, 1);
+            Assertions.assertArrayEquals(testData, (int[]) array.read().get1DJavaArray(ucar.ma2.DataType.UINT));
+            ucar.ma2.Array outArray = array.read(new long[]{3, 5}, new int[]{10, 9});
+            Assertions.assertEquals(3 * 16 + 5, outArray.getInt(0));
+            Assertions.assertEquals(12 * 16 + 13, outArray.getInt(10 * 9 - 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testShardingStreamingEncode() throws IOException, ZarrException {
+        int[] testData = new int[16 * 16];
+        Arrays.setAll(testData, p -> p < 64 ? 0 : p);
+
+        StoreHandle storeHandle = new FilesystemStore(TESTOUTPUT).resolve("sharding_streaming_encode");
+        Array array = Array.create(storeHandle, Array.metadataBuilder()
+                .withShape(16, 16)
+                .withDataType(DataType.UINT32)
+                .withChunkShape(16, 16)
+                .withFillValue(0)
+                .withCodecs(c -> c.withSharding(new int[]{4, 4}, c1 -> c1.withBytes("LITTLE").withZstd()))
+                .build());
+        ucar.ma2.Array data = ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{16, 16}, testData);
+        array.write(data);
+
+        Assertions.assertArrayEquals(testData, (int[]) array.read().get1DJavaArray(ucar.ma2.DataType.UINT));
+        Assertions.assertArrayEquals(new String[]{"0"}, storeHandle.resolve("c", "0").list().toArray());
+        ByteBuffer shardBytes = ((ShardingIndexedCodec) array.metadata.codecs[0]).encode(data);
+        Assertions.assertEquals(shardBytes.remaining(), storeHandle.resolve("c", "0", "0").read().remaining());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"start", "end"})
+    public void testShardingPartialEncode(String indexLocation) throws IOException, ZarrException {
+        int[] testData = new int[16 * 16];
+        Arrays.setAll(testData, p -> p);
+
+        StoreHandle storeHandle = new FilesystemStore(TESTOUTPUT).resolve("sharding_partial_encode", indexLocation);
+        Array array = Array.create(storeHandle, Array.metadataBuilder()
+                .withShape(16, 16)
+                .withDataType(DataType.UINT32)
+                .withChunkShape(16, 16)
+                .withFillValue(0)
+                .withCodecs(c -> c.withSharding(new int[]{4, 4}, c1 -> c1.withBytes("LITTLE").withZstd(), indexLocation))
+                .build());
+        array.write(new long[]{4, 4}, ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{2, 2}, new int[]{1, 2, 3, 4}));
+        ucar.ma2.Array outArray = array.read();
+        Assertions.assertEquals(1, outArray.getInt(4 * 16 + 4));
+        Assertions.assertEquals(4, outArray.getInt(5 * 16 + 5));
+        Assertions.assertEquals(0, outArray.getInt(0));
+
+        ucar.ma2.Array data = ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{16, 16}, testData);
+        array.write(data);
+        ucar.ma2.Array region = ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{3, 6});
+        array.write(new long[]{3, 5}, region);
+        ucar.ma2.Array expected = data.copy();
+        MultiArrayUtils.copyRegion(region, new int[]{0, 0}, expected, new int[]{3, 5}, new int[]{3, 6});
+        Assertions.assertTrue(MultiArrayUtils.allValuesEqual(array.read(), expected));
+        ShardingIndexedCodec shardingCodec = (ShardingIndexedCodec) array.metadata.codecs[0];
+        Assertions.assertEquals(shardingCodec.encode(expected).remaining(),
+                storeHandle.resolve("c", "0", "0").read().remaining());
+
+        array.write(new long[]{0, 0}, ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{16, 15}));
+        array.write(new long[]{0, 15}, ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{15, 1}));
+        Assertions.assertEquals(255, array.read().getInt(255));
+        array.write(new long[]{15, 15}, ucar.ma2.Array.factory(ucar.ma2.DataType.UINT, new int[]{1, 1}));
+        Assertions.assertFalse(storeHandle.resolve("c", "0", "0").exists());
+    }
+
     @Test
     public void testV3ShardingReadCutout() throws IOException, ZarrException {
         Array array = Array.open(new FilesystemStore(TESTDATA).resolve("l4_sample", "color", "1"));